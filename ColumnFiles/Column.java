@@ -0,0 +1,67 @@
+public interface Column { // typed storage for every value of a single DataFrame column
+    String getType();
+
+    int size();
+
+    boolean isNull(int row);
+
+    boolean accepts(DataElement element);
+
+    DataElement get(int row);
+
+    void set(int row, DataElement element);
+
+    void add(DataElement element);
+
+    void addAll(Column other);
+
+    Column select(int[] rows, int count);
+
+    // Read-only copy of the column as it is now, which later changes to this column do not reach. Storage is
+    // shared copy-on-write where possible, so taking one costs far less than select.
+    Column snapshot();
+
+    default double getDouble(int row) {
+        throw new UnsupportedOperationException("Column of type '" + getType() + "' has no double values.");
+    }
+
+    default int getInt(int row) {
+        throw new UnsupportedOperationException("Column of type '" + getType() + "' has no int values.");
+    }
+
+    default char getChar(int row) {
+        throw new UnsupportedOperationException("Column of type '" + getType() + "' has no char values.");
+    }
+
+    default String getString(int row) {
+        throw new UnsupportedOperationException("Column of type '" + getType() + "' has no String values.");
+    }
+
+    // Create an empty column for one of the data type names used in the CSV types line.
+    static Column forType(String type) {
+        switch (type) {
+            case "int":
+                return new IntColumn();
+            case "double":
+                return new DoubleColumn();
+            case "char":
+                return new CharColumn();
+            case "String":
+                return new StringColumn();
+            default:
+                throw new IllegalArgumentException("Invalid data type: " + type);
+        }
+    }
+
+    // Create an empty column able to hold the given element (untyped DataFrames infer columns from their first row).
+    static Column forElement(DataElement element) {
+        if (element instanceof IntElement) {
+            return new IntColumn();
+        } else if (element instanceof DoubleElement) {
+            return new DoubleColumn();
+        } else if (element instanceof CharElement) {
+            return new CharColumn();
+        }
+        return new StringColumn();
+    }
+}
@@ -0,0 +1,226 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// String column stored as int codes into a StringDictionary, for columns with few distinct values: each
+// distinct string is kept once, equality is a comparison of codes and CSV export copies the dictionary's
+// UTF-8 bytes. Columns selected from this one and snapshots share its dictionary copy-on-write: a column
+// copies a shared dictionary before adding a value it lacks, so a shared dictionary never changes.
+public class DictionaryStringColumn implements Column {
+    // A column stays dictionary-encoded while it has at most this many distinct values, during import and after.
+    static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private StringDictionary dictionary;
+    private boolean dictionaryShared; // dictionary also used by another column, copied before a value is added
+    private int[] codes; // -1 for null cells
+    private int size;
+    private boolean shared; // codes array also read by a snapshot, copied before the next in-place change
+    private boolean frozen; // this column is a snapshot
+
+    public DictionaryStringColumn() {
+        this(new StringDictionary());
+    }
+
+    private DictionaryStringColumn(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.codes = new int[16];
+    }
+
+    @Override
+    public String getType() {
+        return "String";
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return codes[row] < 0;
+    }
+
+    @Override
+    public boolean accepts(DataElement element) {
+        return element == null || element instanceof StringElement;
+    }
+
+    @Override
+    public String getString(int row) {
+        return codes[row] < 0 ? null : dictionary.value(codes[row]);
+    }
+
+    @Override
+    public DataElement get(int row) {
+        return codes[row] < 0 ? null : new StringElement(dictionary.value(codes[row]));
+    }
+
+    // Dictionary code of a cell, -1 for null.
+    public int getCode(int row) {
+        return codes[row];
+    }
+
+    // Code of a value in this column's dictionary, or -1 if no cell can hold it.
+    public int findCode(String value) {
+        return dictionary.find(value);
+    }
+
+    public int getDictionarySize() {
+        return dictionary.size();
+    }
+
+    // Value of a dictionary code.
+    public String getDictionaryValue(int code) {
+        return dictionary.value(code);
+    }
+
+    // UTF-8 bytes of a non-null cell, shared with the dictionary.
+    byte[] getBytes(int row) {
+        return dictionary.bytes(codes[row]);
+    }
+
+    @Override
+    public void set(int row, DataElement element) {
+        if (!accepts(element)) {
+            throw new IllegalArgumentException("Invalid element type for DictionaryStringColumn.");
+        }
+        setString(row, element == null ? null : ((StringElement) element).getValue());
+    }
+
+    @Override
+    public void add(DataElement element) {
+        if (!accepts(element)) {
+            throw new IllegalArgumentException("Invalid element type for DictionaryStringColumn.");
+        }
+        addString(element == null ? null : ((StringElement) element).getValue());
+    }
+
+    public void setString(int row, String value) {
+        checkWritable();
+        if (shared) {
+            codes = codes.clone();
+            shared = false;
+        }
+        codes[row] = value == null ? -1 : code(value);
+    }
+
+    public void addString(String value) {
+        checkWritable();
+        addCode(value == null ? -1 : code(value));
+    }
+
+    // Append the UTF-8 value in bytes [start, end) of a buffer, decoding it only if the dictionary lacks it.
+    void addBytes(ByteBuffer buffer, int start, int end) {
+        checkWritable();
+        unshareDictionary();
+        addCode(dictionary.code(buffer, start, end));
+    }
+
+    // Code of a value, adding it to the dictionary if it is new.
+    private int code(String value) {
+        if (dictionaryShared) {
+            int code = dictionary.find(value);
+            if (code >= 0) {
+                return code;
+            }
+            unshareDictionary();
+        }
+        return dictionary.code(value);
+    }
+
+    private void unshareDictionary() {
+        if (dictionaryShared) {
+            dictionary = dictionary.copy();
+            dictionaryShared = false;
+        }
+    }
+
+    private void checkWritable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Column snapshots are read-only.");
+        }
+    }
+
+    private void addCode(int code) {
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, size * 2);
+            shared = false;
+        }
+        codes[size++] = code;
+    }
+
+    // Appending a column with another dictionary translates each of its codes once.
+    @Override
+    public void addAll(Column other) {
+        if (!(other instanceof DictionaryStringColumn)) {
+            if (!other.getType().equals("String")) {
+                for (int row = 0; row < other.size(); row++) {
+                    add(other.get(row));
+                }
+                return;
+            }
+            for (int row = 0; row < other.size(); row++) {
+                addString(other.getString(row));
+            }
+            return;
+        }
+        checkWritable();
+        DictionaryStringColumn column = (DictionaryStringColumn) other;
+        if (size + column.size > codes.length) {
+            codes = Arrays.copyOf(codes, Math.max(size + column.size, size * 2));
+            shared = false;
+        }
+        if (column.dictionary == dictionary) {
+            System.arraycopy(column.codes, 0, codes, size, column.size);
+        } else {
+            int[] translation = new int[column.dictionary.size()];
+            for (int code = 0; code < translation.length; code++) {
+                translation[code] = code(column.dictionary.value(code));
+            }
+            for (int row = 0; row < column.size; row++) {
+                int code = column.codes[row];
+                codes[size + row] = code < 0 ? -1 : translation[code];
+            }
+        }
+        size += column.size;
+    }
+
+    @Override
+    public Column select(int[] rows, int count) {
+        DictionaryStringColumn selected = new DictionaryStringColumn(dictionary);
+        selected.dictionaryShared = true;
+        dictionaryShared = true;
+        selected.codes = new int[Math.max(count, 1)];
+        for (int i = 0; i < count; i++) {
+            selected.codes[i] = codes[rows[i]];
+        }
+        selected.size = count;
+        return selected;
+    }
+
+    // The same values as a plain StringColumn, for when the number of distinct values grows too large.
+    StringColumn toStringColumn() {
+        String[] values = new String[Math.max(size, 1)];
+        for (int row = 0; row < size; row++) {
+            values[row] = getString(row);
+        }
+        return new StringColumn(values, size);
+    }
+
+    // Read-only copy of the rows so far that shares the codes array like IntColumn.snapshot, and the dictionary
+    // like select.
+    @Override
+    public Column snapshot() {
+        if (frozen) {
+            return this;
+        }
+        shared = true;
+        dictionaryShared = true;
+        DictionaryStringColumn snapshot = new DictionaryStringColumn(dictionary);
+        snapshot.dictionaryShared = true;
+        snapshot.codes = codes;
+        snapshot.size = size;
+        snapshot.frozen = true;
+        return snapshot;
+    }
+}
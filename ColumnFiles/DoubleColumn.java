@@ -0,0 +1,175 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+public class DoubleColumn implements Column {
+    private double[] values;
+    private BitSet nulls; // only allocated once a null cell is stored
+    private int size;
+    private boolean shared; // values array also read by a snapshot, copied before the next in-place change
+    private boolean frozen; // this column is a snapshot
+
+    public DoubleColumn() {
+        this.values = new double[16];
+    }
+
+    // Wrap already filled storage (used when loading a saved DataFrame).
+    DoubleColumn(double[] values, BitSet nulls, int size) {
+        this.values = values;
+        this.nulls = nulls;
+        this.size = size;
+    }
+
+    @Override
+    public String getType() {
+        return "double";
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return nulls != null && nulls.get(row);
+    }
+
+    @Override
+    public boolean accepts(DataElement element) {
+        return element == null || element instanceof DoubleElement;
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return values[row];
+    }
+
+    @Override
+    public DataElement get(int row) {
+        return isNull(row) ? null : new DoubleElement(values[row]);
+    }
+
+    @Override
+    public void set(int row, DataElement element) {
+        if (!accepts(element)) {
+            throw new IllegalArgumentException("Invalid element type for DoubleColumn.");
+        }
+        if (element == null) {
+            checkWritable();
+            setNull(row);
+        } else {
+            setDouble(row, ((DoubleElement) element).getValue());
+        }
+    }
+
+    @Override
+    public void add(DataElement element) {
+        if (!accepts(element)) {
+            throw new IllegalArgumentException("Invalid element type for DoubleColumn.");
+        }
+        if (element == null) {
+            addNull();
+        } else {
+            addDouble(((DoubleElement) element).getValue());
+        }
+    }
+
+    public void setDouble(int row, double value) {
+        checkWritable();
+        if (shared) {
+            values = values.clone();
+            shared = false;
+        }
+        values[row] = value;
+        if (nulls != null) {
+            nulls.clear(row);
+        }
+    }
+
+    // Backing array for loops over a range of rows (see ColumnKernels); null rows hold 0.
+    double[] values() {
+        return values;
+    }
+
+    // First null row at or after row, or -1 if there is none.
+    int nextNull(int row) {
+        return nulls == null ? -1 : nulls.nextSetBit(row);
+    }
+
+    public void addDouble(double value) {
+        checkWritable();
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            shared = false;
+        }
+        values[size++] = value;
+    }
+
+    public void addNull() {
+        addDouble(0);
+        setNull(size - 1);
+    }
+
+    private void checkWritable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Column snapshots are read-only.");
+        }
+    }
+
+    private void setNull(int row) {
+        if (nulls == null) {
+            nulls = new BitSet();
+        }
+        nulls.set(row);
+    }
+
+    @Override
+    public void addAll(Column other) {
+        if (!(other instanceof DoubleColumn)) {
+            for (int row = 0; row < other.size(); row++) {
+                add(other.get(row));
+            }
+            return;
+        }
+        checkWritable();
+        DoubleColumn column = (DoubleColumn) other;
+        if (size + column.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(size + column.size, size * 2));
+            shared = false;
+        }
+        System.arraycopy(column.values, 0, values, size, column.size);
+        if (column.nulls != null) {
+            for (int row = column.nulls.nextSetBit(0); row >= 0; row = column.nulls.nextSetBit(row + 1)) {
+                setNull(size + row);
+            }
+        }
+        size += column.size;
+    }
+
+    @Override
+    public Column select(int[] rows, int count) {
+        DoubleColumn selected = new DoubleColumn();
+        selected.values = new double[Math.max(count, 1)];
+        for (int i = 0; i < count; i++) {
+            selected.values[i] = values[rows[i]];
+            if (isNull(rows[i])) {
+                selected.setNull(i);
+            }
+        }
+        selected.size = count;
+        return selected;
+    }
+
+    // Read-only copy of the rows so far that shares the values array: later rows are appended past the
+    // snapshot's size, and the next in-place change copies the array first. Only the null bitmap is copied.
+    @Override
+    public Column snapshot() {
+        if (frozen) {
+            return this;
+        }
+        shared = true;
+        DoubleColumn snapshot = new DoubleColumn(values, nulls == null ? null : (BitSet) nulls.clone(), size);
+        snapshot.frozen = true;
+        return snapshot;
+    }
+}
@@ -0,0 +1,20 @@
+class MappedCharColumn extends MappedColumn {
+    MappedCharColumn(MappedRegion values, MappedRegion nulls, int size) {
+        super(values, nulls, size);
+    }
+
+    @Override
+    public String getType() {
+        return "char";
+    }
+
+    @Override
+    public char getChar(int row) {
+        return values.getChar(2L * row);
+    }
+
+    @Override
+    public DataElement get(int row) {
+        return isNull(row) ? null : new CharElement(getChar(row));
+    }
+}
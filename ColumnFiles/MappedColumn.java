@@ -0,0 +1,58 @@
+// Read-only column whose values stay in a memory-mapped DataFrame file instead of the Java heap.
+abstract class MappedColumn implements Column {
+    protected final MappedRegion values;
+    private final MappedRegion nulls; // null bitmap words, or null when the column has no nulls
+    private final int size;
+
+    MappedColumn(MappedRegion values, MappedRegion nulls, int size) {
+        this.values = values;
+        this.nulls = nulls;
+        this.size = size;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return nulls != null && (nulls.getLong(8L * (row >>> 6)) & (1L << row)) != 0;
+    }
+
+    @Override
+    public boolean accepts(DataElement element) {
+        return Column.forType(getType()).accepts(element);
+    }
+
+    @Override
+    public void set(int row, DataElement element) {
+        throw new UnsupportedOperationException("Memory-mapped columns are read-only.");
+    }
+
+    @Override
+    public void add(DataElement element) {
+        throw new UnsupportedOperationException("Memory-mapped columns are read-only.");
+    }
+
+    // The mapped file is never written, so the column is its own snapshot.
+    @Override
+    public Column snapshot() {
+        return this;
+    }
+
+    @Override
+    public void addAll(Column other) {
+        throw new UnsupportedOperationException("Memory-mapped columns are read-only.");
+    }
+
+    // Copy the selected rows into a heap column of the same type.
+    @Override
+    public Column select(int[] rows, int count) {
+        Column selected = Column.forType(getType());
+        for (int i = 0; i < count; i++) {
+            selected.add(get(rows[i]));
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,20 @@
+class MappedDoubleColumn extends MappedColumn {
+    MappedDoubleColumn(MappedRegion values, MappedRegion nulls, int size) {
+        super(values, nulls, size);
+    }
+
+    @Override
+    public String getType() {
+        return "double";
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return values.getDouble(8L * row);
+    }
+
+    @Override
+    public DataElement get(int row) {
+        return isNull(row) ? null : new DoubleElement(getDouble(row));
+    }
+}
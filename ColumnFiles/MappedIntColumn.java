@@ -0,0 +1,25 @@
+class MappedIntColumn extends MappedColumn {
+    MappedIntColumn(MappedRegion values, MappedRegion nulls, int size) {
+        super(values, nulls, size);
+    }
+
+    @Override
+    public String getType() {
+        return "int";
+    }
+
+    @Override
+    public int getInt(int row) {
+        return values.getInt(4L * row);
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return getInt(row);
+    }
+
+    @Override
+    public DataElement get(int row) {
+        return isNull(row) ? null : new IntElement(getInt(row));
+    }
+}
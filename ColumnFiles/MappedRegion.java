@@ -0,0 +1,49 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// Read-only region of a file, mapped as consecutive segments of at most 1 GB so it can exceed 2 GB.
+// Values of 2, 4 or 8 bytes at aligned offsets never straddle two segments.
+class MappedRegion {
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final ByteBuffer[] segments;
+
+    MappedRegion(FileChannel channel, long start, long length) throws IOException {
+        segments = new ByteBuffer[(int) Math.max(1, (length + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long offset = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + offset,
+                    Math.min(1L << SEGMENT_SHIFT, length - offset)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    char getChar(long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getChar((int) (offset & SEGMENT_MASK));
+    }
+
+    int getInt(long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getInt((int) (offset & SEGMENT_MASK));
+    }
+
+    long getLong(long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getLong((int) (offset & SEGMENT_MASK));
+    }
+
+    double getDouble(long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getDouble((int) (offset & SEGMENT_MASK));
+    }
+
+    // Copy bytes that may span two segments.
+    void getBytes(long offset, byte[] destination, int length) {
+        for (int done = 0; done < length; ) {
+            ByteBuffer segment = segments[(int) ((offset + done) >>> SEGMENT_SHIFT)];
+            int position = (int) ((offset + done) & SEGMENT_MASK);
+            int count = Math.min(length - done, segment.limit() - position);
+            segment.get(position, destination, done, count);
+            done += count;
+        }
+    }
+}
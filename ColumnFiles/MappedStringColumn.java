@@ -0,0 +1,38 @@
+import java.nio.charset.StandardCharsets;
+
+class MappedStringColumn extends MappedColumn {
+    private final MappedRegion offsets; // long[size + 1] byte offsets into values
+    private final long valuesLength;
+
+    MappedStringColumn(MappedRegion offsets, MappedRegion values, long valuesLength, MappedRegion nulls, int size) {
+        super(values, nulls, size);
+        this.offsets = offsets;
+        this.valuesLength = valuesLength;
+    }
+
+    @Override
+    public String getType() {
+        return "String";
+    }
+
+    @Override
+    public String getString(int row) {
+        if (isNull(row)) {
+            return null;
+        }
+        long start = offsets.getLong(8L * row);
+        long end = offsets.getLong(8L * row + 8);
+        // Opening the file checks only the last offset, so a corrupt one is caught here
+        if (start < 0 || end < start || end > valuesLength || end - start > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Corrupt String offsets in row " + row + " of a memory-mapped column.");
+        }
+        byte[] bytes = new byte[(int) (end - start)];
+        values.getBytes(start, bytes, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public DataElement get(int row) {
+        return isNull(row) ? null : new StringElement(getString(row));
+    }
+}
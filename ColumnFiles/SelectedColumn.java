@@ -0,0 +1,118 @@
+// Read-only view of some rows of another column: row i of the view is row rows[i] of the base column.
+// Subset DataFrames are built from these so no values are copied; all columns of one subset share the
+// same rows array. Views of views are flattened onto the original column by compose.
+class SelectedColumn implements Column {
+    private final Column base;
+    private final int[] rows;
+    private final int size;
+
+    SelectedColumn(Column base, int[] rows, int size) {
+        this.base = base;
+        this.rows = rows;
+        this.size = size;
+    }
+
+    Column getBase() {
+        return base;
+    }
+
+    // Row of the base column behind a row of the view.
+    int baseRow(int row) {
+        return rows[row];
+    }
+
+    // The rows of a column selected by its row ids, resolved through the column if it is a view itself.
+    static int[] compose(Column column, int[] rows, int count) {
+        if (!(column instanceof SelectedColumn)) {
+            return rows;
+        }
+        int[] selection = ((SelectedColumn) column).rows;
+        int[] composed = new int[count];
+        for (int i = 0; i < count; i++) {
+            composed[i] = selection[rows[i]];
+        }
+        return composed;
+    }
+
+    // The column a view should be built on: the base of a view, or the column itself.
+    static Column baseOf(Column column) {
+        return column instanceof SelectedColumn ? ((SelectedColumn) column).base : column;
+    }
+
+    @Override
+    public String getType() {
+        return base.getType();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return base.isNull(rows[row]);
+    }
+
+    @Override
+    public boolean accepts(DataElement element) {
+        return base.accepts(element);
+    }
+
+    @Override
+    public DataElement get(int row) {
+        return base.get(rows[row]);
+    }
+
+    @Override
+    public double getDouble(int row) {
+        return base.getDouble(rows[row]);
+    }
+
+    @Override
+    public int getInt(int row) {
+        return base.getInt(rows[row]);
+    }
+
+    @Override
+    public char getChar(int row) {
+        return base.getChar(rows[row]);
+    }
+
+    @Override
+    public String getString(int row) {
+        return base.getString(rows[row]);
+    }
+
+    @Override
+    public void set(int row, DataElement element) {
+        throw new UnsupportedOperationException("Column views are read-only.");
+    }
+
+    @Override
+    public void add(DataElement element) {
+        throw new UnsupportedOperationException("Column views are read-only.");
+    }
+
+    @Override
+    public void addAll(Column other) {
+        throw new UnsupportedOperationException("Column views are read-only.");
+    }
+
+    // Copy of the selected rows out of the base column.
+    @Override
+    public Column select(int[] rows, int count) {
+        return base.select(compose(this, rows, count), count);
+    }
+
+    // The same rows of a snapshot of the base column.
+    @Override
+    public Column snapshot() {
+        return new SelectedColumn(base.snapshot(), rows, size);
+    }
+
+    // Copy of every row of the view.
+    Column materialize() {
+        return base.select(rows, size);
+    }
+}
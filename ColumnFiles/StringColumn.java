@@ -0,0 +1,136 @@
+import java.util.Arrays;
+
+public class StringColumn implements Column {
+    private String[] values; // null entries are null cells
+    private int size;
+    private boolean shared; // values array also read by a snapshot, copied before the next in-place change
+    private boolean frozen; // this column is a snapshot
+
+    public StringColumn() {
+        this.values = new String[16];
+    }
+
+    // Wrap already filled storage (used when loading a saved DataFrame).
+    StringColumn(String[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    public String getType() {
+        return "String";
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return values[row] == null;
+    }
+
+    @Override
+    public boolean accepts(DataElement element) {
+        return element == null || element instanceof StringElement;
+    }
+
+    @Override
+    public String getString(int row) {
+        return values[row];
+    }
+
+    @Override
+    public DataElement get(int row) {
+        return values[row] == null ? null : new StringElement(values[row]);
+    }
+
+    @Override
+    public void set(int row, DataElement element) {
+        if (!accepts(element)) {
+            throw new IllegalArgumentException("Invalid element type for StringColumn.");
+        }
+        setString(row, element == null ? null : ((StringElement) element).getValue());
+    }
+
+    @Override
+    public void add(DataElement element) {
+        if (!accepts(element)) {
+            throw new IllegalArgumentException("Invalid element type for StringColumn.");
+        }
+        addString(element == null ? null : ((StringElement) element).getValue());
+    }
+
+    public void setString(int row, String value) {
+        checkWritable();
+        if (shared) {
+            values = values.clone();
+            shared = false;
+        }
+        values[row] = value;
+    }
+
+    public void addString(String value) {
+        checkWritable();
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            shared = false;
+        }
+        values[size++] = value;
+    }
+
+    private void checkWritable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Column snapshots are read-only.");
+        }
+    }
+
+    @Override
+    public void addAll(Column other) {
+        if (!(other instanceof StringColumn)) {
+            if (!other.getType().equals("String")) {
+                for (int row = 0; row < other.size(); row++) {
+                    add(other.get(row));
+                }
+                return;
+            }
+            for (int row = 0; row < other.size(); row++) {
+                addString(other.getString(row));
+            }
+            return;
+        }
+        checkWritable();
+        StringColumn column = (StringColumn) other;
+        if (size + column.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(size + column.size, size * 2));
+            shared = false;
+        }
+        System.arraycopy(column.values, 0, values, size, column.size);
+        size += column.size;
+    }
+
+    @Override
+    public Column select(int[] rows, int count) {
+        StringColumn selected = new StringColumn();
+        selected.values = new String[Math.max(count, 1)];
+        for (int i = 0; i < count; i++) {
+            selected.values[i] = values[rows[i]];
+        }
+        selected.size = count;
+        return selected;
+    }
+
+    // Read-only copy of the rows so far that shares the values array: later rows are appended past the
+    // snapshot's size, and the next in-place change copies the array first.
+    @Override
+    public Column snapshot() {
+        if (frozen) {
+            return this;
+        }
+        shared = true;
+        StringColumn snapshot = new StringColumn(values, size);
+        snapshot.frozen = true;
+        return snapshot;
+    }
+}
@@ -0,0 +1,125 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Append-only set of distinct strings, each numbered by a code in order of arrival. Values are kept as
+// Strings and as UTF-8 bytes; the hash table is keyed by the bytes, so CSV fields can be looked up straight
+// from the input buffer and only decoded the first time they are seen.
+class StringDictionary {
+    private String[] values = new String[16];
+    private byte[][] bytes = new byte[16][];
+    private int[] hashes = new int[16];
+    private int[] table = new int[32]; // open addressing, code + 1 per slot, 0 is empty
+    private int size;
+
+    // Independent dictionary holding the same codes, which this one can grow without affecting.
+    StringDictionary copy() {
+        StringDictionary copy = new StringDictionary();
+        copy.values = values.clone();
+        copy.bytes = bytes.clone();
+        copy.hashes = hashes.clone();
+        copy.table = table.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String value(int code) {
+        return values[code];
+    }
+
+    byte[] bytes(int code) {
+        return bytes[code];
+    }
+
+    // Code of a value, adding it if it is new.
+    int code(String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        return code(buffer, 0, encoded.length, value);
+    }
+
+    // Code of the UTF-8 value in bytes [start, end) of a buffer, adding it if it is new.
+    int code(ByteBuffer buffer, int start, int end) {
+        return code(buffer, start, end, null);
+    }
+
+    // Code of a value, or -1 if it is not in the dictionary.
+    int find(String value) {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        return table[probe(buffer, 0, encoded.length, hash(buffer, 0, encoded.length))] - 1;
+    }
+
+    private int code(ByteBuffer buffer, int start, int end, String value) {
+        int hash = hash(buffer, start, end);
+        int slot = probe(buffer, start, end, hash);
+        if (table[slot] != 0) {
+            return table[slot] - 1;
+        }
+        byte[] encoded = new byte[end - start];
+        buffer.get(start, encoded);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            bytes = Arrays.copyOf(bytes, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        values[size] = value != null ? value : new String(encoded, StandardCharsets.UTF_8);
+        bytes[size] = encoded;
+        hashes[size] = hash;
+        table[slot] = ++size;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    // Slot holding the value in bytes [start, end), or the empty slot where it belongs.
+    private int probe(ByteBuffer buffer, int start, int end, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            int code = table[slot] - 1;
+            if (hashes[code] == hash && matches(bytes[code], buffer, start, end)) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash() {
+        table = new int[table.length * 2];
+        int mask = table.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = code + 1;
+        }
+    }
+
+    private static boolean matches(byte[] value, ByteBuffer buffer, int start, int end) {
+        if (value.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < value.length; i++) {
+            if (value[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(ByteBuffer buffer, int start, int end) {
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,88 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Runs a task over fixed-size chunks, either inline or on a fork-join pool. Chunk boundaries do not
+// depend on the parallelism, so merging the per-chunk results in order gives the same answer either way.
+class ChunkExecutor {
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    interface ChunkTask<T> {
+        T apply(int chunk) throws DataFrameException;
+    }
+
+    interface RangeTask<T> {
+        T apply(int from, int to) throws DataFrameException;
+    }
+
+    // Run a task over the row range [0, rowCount) split into chunks of CHUNK_SIZE rows.
+    static <T> List<T> runRows(int rowCount, int parallelism, RangeTask<T> task) throws DataFrameException {
+        int chunkCount = Math.max(1, (rowCount + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        return runChunks(chunkCount, parallelism, chunk -> {
+            int from = chunk * CHUNK_SIZE;
+            return task.apply(from, Math.min(rowCount, from + CHUNK_SIZE));
+        });
+    }
+
+    // Run a task once per chunk index and return the results in chunk order.
+    @SuppressWarnings("unchecked")
+    static <T> List<T> runChunks(int chunkCount, int parallelism, ChunkTask<T> task) throws DataFrameException {
+        Object[] results = new Object[chunkCount];
+        if (parallelism <= 1 || chunkCount == 1) {
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                results[chunk] = task.apply(chunk);
+            }
+        } else {
+            ForkJoinPool pool = POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
+            try {
+                pool.invoke(new SplitTask(task, results, 0, chunkCount));
+            } catch (ChunkFailure e) {
+                throw e.cause;
+            }
+        }
+        return (List<T>) Arrays.asList(results);
+    }
+
+    private static class SplitTask extends RecursiveAction {
+        private final ChunkTask<?> task;
+        private final Object[] results;
+        private final int from;
+        private final int to;
+
+        SplitTask(ChunkTask<?> task, Object[] results, int from, int to) {
+            this.task = task;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                try {
+                    results[from] = task.apply(from);
+                } catch (DataFrameException e) {
+                    throw new ChunkFailure(e);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SplitTask(task, results, from, middle), new SplitTask(task, results, middle, to));
+        }
+    }
+
+    // Carries a checked DataFrameException out of a pool worker.
+    private static class ChunkFailure extends RuntimeException {
+        private final DataFrameException cause;
+
+        ChunkFailure(DataFrameException cause) {
+            super(cause);
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+// The inner loops of double column aggregation, binning and comparison, run straight over the backing array
+// of a DoubleColumn. This class is the scalar version. VectorColumnKernels (in VectorKernels/) overrides the
+// array loops with jdk.incubator.vector code. It is picked at startup when that module is present and the class
+// was compiled in. The system property dataframe.kernels can force "scalar", or "off" for the per-row
+// Column loops.
+class ColumnKernels {
+    static final ColumnKernels KERNELS = select(System.getProperty("dataframe.kernels", "vector"));
+
+    static ColumnKernels select(String choice) {
+        if (choice.equals("off")) {
+            return null;
+        }
+        if (choice.equals("vector") && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (ColumnKernels) Class.forName("VectorColumnKernels").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Built without the vector kernels; use the scalar loops
+            }
+        }
+        return new ColumnKernels();
+    }
+
+    // Add the non-null values of rows [from, to) to the statistics, one null-free run at a time.
+    final void stats(DoubleColumn column, int from, int to, ColumnStats stats) {
+        double[] values = column.values();
+        for (int row = from; row < to; ) {
+            int end = runEnd(column, row, to);
+            stats(values, row, end, stats);
+            row = end + 1;
+        }
+    }
+
+    // Add the non-null values of rows [from, to) to the histogram, one null-free run at a time.
+    final void histogram(DoubleColumn column, int from, int to, Histogram histogram) {
+        double[] values = column.values();
+        for (int row = from; row < to; ) {
+            int end = runEnd(column, row, to);
+            histogram(values, row, end, histogram);
+            row = end + 1;
+        }
+    }
+
+    // Set bit (row - from) in words for every non-null row of [from, to) whose value compares to the literal
+    // as the operator asks, with Double.compare semantics.
+    final void compare(DoubleColumn column, int from, int to, Predicate.Operator operator, double literal, long[] words) {
+        compare(column.values(), from, to, operator, literal, words);
+        for (int row = column.nextNull(from); row >= 0 && row < to; row = column.nextNull(row + 1)) {
+            int bit = row - from;
+            words[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    // End of the run of non-null rows starting at row, at most to.
+    private static int runEnd(DoubleColumn column, int row, int to) {
+        int nextNull = column.nextNull(row);
+        return nextNull < 0 || nextNull > to ? to : nextNull;
+    }
+
+    void stats(double[] values, int from, int to, ColumnStats stats) {
+        for (int i = from; i < to; i++) {
+            stats.accept(values[i]);
+        }
+    }
+
+    void histogram(double[] values, int from, int to, Histogram histogram) {
+        for (int i = from; i < to; i++) {
+            histogram.add(values[i]);
+        }
+    }
+
+    void compare(double[] values, int from, int to, Predicate.Operator operator, double literal, long[] words) {
+        for (int i = from; i < to; i++) {
+            if (operator.accept(Double.compare(values[i], literal))) {
+                int bit = i - from;
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+}
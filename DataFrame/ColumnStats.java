@@ -0,0 +1,79 @@
+// Running count, sum, sum of squares, minimum and maximum of numeric values. The sums are compensated
+// (Neumaier) so that merging per-chunk partials keeps them as accurate as a single sequential pass.
+class ColumnStats {
+    private long count;
+    private double sum;
+    private double compensation;
+    private double sumOfSquares;
+    private double squaresCompensation;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    void accept(double value) {
+        count++;
+        add(value);
+        addSquare(value * value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void merge(ColumnStats other) {
+        merge(other.count, other.sum, other.compensation, other.sumOfSquares, other.squaresCompensation, other.min, other.max);
+    }
+
+    // Merge a partial kept outside a ColumnStats, such as one lane of a vector kernel.
+    void merge(long count, double sum, double compensation, double sumOfSquares, double squaresCompensation,
+            double min, double max) {
+        this.count += count;
+        add(sum);
+        this.compensation += compensation;
+        addSquare(sumOfSquares);
+        this.squaresCompensation += squaresCompensation;
+        this.min = Math.min(this.min, min);
+        this.max = Math.max(this.max, max);
+    }
+
+    private void add(double value) {
+        double total = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - total) + value;
+        } else {
+            compensation += (value - total) + sum;
+        }
+        sum = total;
+    }
+
+    private void addSquare(double value) {
+        double total = sumOfSquares + value;
+        if (Math.abs(sumOfSquares) >= Math.abs(value)) {
+            squaresCompensation += (sumOfSquares - total) + value;
+        } else {
+            squaresCompensation += (value - total) + sumOfSquares;
+        }
+        sumOfSquares = total;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getSum() {
+        return sum + compensation;
+    }
+
+    double getSumOfSquares() {
+        return sumOfSquares + squaresCompensation;
+    }
+
+    double getMean() {
+        return getSum() / count;
+    }
+
+    double getMin() {
+        return min;
+    }
+
+    double getMax() {
+        return max;
+    }
+}
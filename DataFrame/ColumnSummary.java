@@ -0,0 +1,60 @@
+// Count, mean and sum of squared deviations (Welford), minimum and maximum of numeric values together with a
+// QuantileSketch, all gathered in one pass. Partials of separate chunks merge with the pairwise update of Chan,
+// Golub and LeVeque, which keeps the variance as accurate as a single sequential pass.
+class ColumnSummary {
+    private long count;
+    private double mean;
+    private double squaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final QuantileSketch sketch = new QuantileSketch();
+
+    void accept(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sketch.accept(value);
+    }
+
+    void merge(ColumnSummary other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        squaredDeviations += other.squaredDeviations + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sketch.merge(other.sketch);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getMean() {
+        return mean;
+    }
+
+    // Sample variance (divided by count - 1); NaN for fewer than two values.
+    double getVariance() {
+        return count < 2 ? Double.NaN : squaredDeviations / (count - 1);
+    }
+
+    double getMin() {
+        return min;
+    }
+
+    double getMax() {
+        return max;
+    }
+
+    double quantile(double q) {
+        return sketch.quantile(q);
+    }
+}
@@ -0,0 +1,163 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Parses a subset condition once into a Predicate tree bound to a DataFrame's columns.
+// Grammar: expression := term (OR term)*, term := factor (AND factor)*,
+//          factor := NOT factor | '(' expression ')' | columnName operator value | columnName IN '(' values ')'
+// where values is a comma-separated list.
+class ConditionParser {
+    private static final String FORMAT_ERROR = "Invalid condition format. Example: 'columnName > value'.";
+
+    private final DataFrame frame;
+    private final List<String> tokens;
+    private int position;
+
+    private ConditionParser(DataFrame frame, List<String> tokens) {
+        this.frame = frame;
+        this.tokens = tokens;
+    }
+
+    static Predicate parse(String condition, DataFrame frame) throws DataFrameException {
+        ConditionParser parser = new ConditionParser(frame, tokenize(condition));
+        Predicate predicate = parser.parseExpression();
+        if (parser.position != parser.tokens.size()) {
+            throw new DataFrameException(FORMAT_ERROR);
+        }
+        return predicate;
+    }
+
+    // Split on whitespace, keeping parentheses as tokens of their own.
+    private static List<String> tokenize(String condition) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < condition.length(); i++) {
+            char c = condition.charAt(i);
+            if (Character.isWhitespace(c) || c == '(' || c == ')') {
+                if (token.length() > 0) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+                if (c == '(' || c == ')') {
+                    tokens.add(String.valueOf(c));
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private Predicate parseExpression() throws DataFrameException {
+        Predicate predicate = parseTerm();
+        while (accept("OR")) {
+            predicate = new Predicate.Or(predicate, parseTerm());
+        }
+        return predicate;
+    }
+
+    private Predicate parseTerm() throws DataFrameException {
+        Predicate predicate = parseFactor();
+        while (accept("AND")) {
+            predicate = new Predicate.And(predicate, parseFactor());
+        }
+        return predicate;
+    }
+
+    private Predicate parseFactor() throws DataFrameException {
+        if (accept("NOT")) {
+            return new Predicate.Not(parseFactor());
+        }
+        if (accept("(")) {
+            Predicate predicate = parseExpression();
+            if (!accept(")")) {
+                throw new DataFrameException(FORMAT_ERROR);
+            }
+            return predicate;
+        }
+        return parseComparison();
+    }
+
+    private Predicate parseComparison() throws DataFrameException {
+        if (position + 3 > tokens.size()) {
+            throw new DataFrameException(FORMAT_ERROR);
+        }
+        String columnName = tokens.get(position++);
+        String symbol = tokens.get(position++);
+        if (symbol.equals("IN")) {
+            return parseIn(columnName);
+        }
+        String value = tokens.get(position++);
+
+        Predicate.Operator operator = Predicate.Operator.fromSymbol(symbol);
+        if (operator == null) {
+            throw new DataFrameException("Invalid operator '" + symbol + "'.");
+        }
+        int columnIndex = frame.findColumn(columnName);
+        Predicate.Comparison comparison = comparison(columnName, columnIndex, operator, value);
+        comparison.key = columnIndex + " " + symbol + " " + value;
+        return comparison;
+    }
+
+    // The value list after IN; commas may stand alone or be attached to the values around them.
+    private Predicate parseIn(String columnName) throws DataFrameException {
+        if (!accept("(")) {
+            throw new DataFrameException(FORMAT_ERROR);
+        }
+        StringBuilder list = new StringBuilder();
+        while (!accept(")")) {
+            if (position == tokens.size()) {
+                throw new DataFrameException(FORMAT_ERROR);
+            }
+            list.append(tokens.get(position++)).append(',');
+        }
+        int columnIndex = frame.findColumn(columnName);
+        List<Predicate.Comparison> values = new ArrayList<>();
+        for (String value : list.toString().split(",")) {
+            if (!value.isEmpty()) {
+                values.add(comparison(columnName, columnIndex, Predicate.Operator.EQUAL, value));
+            }
+        }
+        if (values.isEmpty()) {
+            throw new DataFrameException(FORMAT_ERROR);
+        }
+        Predicate.In in = new Predicate.In(columnIndex, values.toArray(new Predicate.Comparison[0]));
+        in.key = columnIndex + " IN " + list;
+        return in;
+    }
+
+    private Predicate.Comparison comparison(String columnName, int columnIndex, Predicate.Operator operator, String value)
+            throws DataFrameException {
+        Column column = frame.getColumn(columnIndex);
+        try {
+            switch (column.getType()) {
+                case "double":
+                    return new Predicate.DoubleComparison(columnIndex, column, operator, Double.parseDouble(value));
+                case "int":
+                    return new Predicate.IntComparison(columnIndex, column, operator, Double.parseDouble(value));
+                case "char":
+                    if (value.length() != 1) {
+                        throw new DataFrameException("Invalid value '" + value + "' for column '" + columnName + "'.");
+                    }
+                    return new Predicate.CharComparison(columnIndex, column, operator, value.charAt(0));
+                default:
+                    if (SelectedColumn.baseOf(column) instanceof DictionaryStringColumn) {
+                        return new Predicate.DictionaryComparison(columnIndex, column, operator, value);
+                    }
+                    return new Predicate.StringComparison(columnIndex, column, operator, value);
+            }
+        } catch (NumberFormatException e) {
+            throw new DataFrameException("Invalid value '" + value + "' for column '" + columnName + "'.");
+        }
+    }
+
+    private boolean accept(String token) {
+        if (position < tokens.size() && tokens.get(position).equals(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+}
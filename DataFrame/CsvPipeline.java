@@ -0,0 +1,335 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Aggregates a CSV file while it is read, without building a DataFrame. Each parsed range of the file is
+// wrapped in a short-lived batch frame, filtered with the subsetDataFrame condition syntax and folded into
+// the registered aggregates, so memory use stays bounded by one wave of ranges whatever the file size.
+// Results match running the same aggregations on subsetDataFrame(filter) of the imported file.
+public class CsvPipeline {
+    private final String filePath;
+    private final List<String> filters = new ArrayList<>();
+    private final Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+    private boolean memoryMapped;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long checkpointInterval;
+    private Consumer<Results> checkpointListener;
+
+    public CsvPipeline(String filePath) {
+        this.filePath = filePath;
+    }
+
+    // Only aggregate rows matching the condition; several filters must all match.
+    public CsvPipeline filter(String condition) {
+        filters.add(condition);
+        return this;
+    }
+
+    // Register the average of a double column (see DataFrame.averageColumn).
+    public CsvPipeline average(String columnName) {
+        aggregate(columnName).average = true;
+        return this;
+    }
+
+    // Register the minimum of a double column (see DataFrame.minColumn).
+    public CsvPipeline min(String columnName) {
+        aggregate(columnName).min = true;
+        return this;
+    }
+
+    // Register the maximum of a double column (see DataFrame.maxColumn).
+    public CsvPipeline max(String columnName) {
+        aggregate(columnName).max = true;
+        return this;
+    }
+
+    // Register a frequency table spanning the minimum to the maximum of the matching values. The range is not
+    // known up front, so the file is read twice: once for the range and once for the counts.
+    public CsvPipeline frequencyTable(String columnName, int intervalCount) throws DataFrameException {
+        return frequencyTable(columnName, intervalCount, Double.NaN, Double.NaN);
+    }
+
+    // Register a frequency table over a fixed range, counted in the same pass as everything else.
+    public CsvPipeline frequencyTable(String columnName, int intervalCount, double min, double max)
+            throws DataFrameException {
+        if (intervalCount < 1) {
+            throw new DataFrameException("Number of intervals must be positive.");
+        }
+        if (!Double.isNaN(min) && !(min <= max)) {
+            throw new DataFrameException("Invalid histogram range [" + min + ", " + max + "].");
+        }
+        Aggregate aggregate = aggregate(columnName);
+        aggregate.intervalCount = intervalCount;
+        aggregate.histogramMin = min;
+        aggregate.histogramMax = max;
+        return this;
+    }
+
+    // Report intermediate results to the listener every given number of rows read.
+    public CsvPipeline checkpointEvery(long rows, Consumer<Results> listener) throws DataFrameException {
+        if (rows < 1) {
+            throw new DataFrameException("Checkpoint interval must be positive.");
+        }
+        this.checkpointInterval = rows;
+        this.checkpointListener = listener;
+        return this;
+    }
+
+    public CsvPipeline setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+        return this;
+    }
+
+    // Number of threads used to parse the file.
+    public CsvPipeline setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // Read the file and return the final results. Checkpoints are reported during the last pass.
+    public Results run() throws DataFrameException {
+        boolean needsRange = false;
+        for (Aggregate aggregate : aggregates.values()) {
+            needsRange |= aggregate.intervalCount > 0 && Double.isNaN(aggregate.histogramMin);
+        }
+        Map<String, double[]> ranges = new LinkedHashMap<>();
+        if (needsRange) {
+            Pass rangePass = new Pass(false, ranges);
+            CsvReader.stream(filePath, parallelism, memoryMapped, rangePass);
+            rangePass.histogramRanges();
+        }
+        Pass pass = new Pass(true, ranges);
+        CsvReader.stream(filePath, parallelism, memoryMapped, pass);
+        return pass.results();
+    }
+
+    private Aggregate aggregate(String columnName) {
+        return aggregates.computeIfAbsent(columnName, Aggregate::new);
+    }
+
+    // What is registered for one column.
+    private static class Aggregate {
+        final String columnName;
+        boolean average;
+        boolean min;
+        boolean max;
+        int intervalCount;
+        double histogramMin = Double.NaN;
+        double histogramMax = Double.NaN;
+
+        Aggregate(String columnName) {
+            this.columnName = columnName;
+        }
+    }
+
+    // One read of the file. The first of two passes only gathers the ranges of open-ended histograms.
+    private class Pass implements CsvReader.BatchConsumer {
+        private final boolean counting;
+        private final Map<String, double[]> ranges;
+        private final List<Aggregate> columns = new ArrayList<>(aggregates.values());
+        private final int[] columnIndexes = new int[columns.size()];
+        private final ColumnStats[] stats = new ColumnStats[columns.size()];
+        private final Histogram[] histograms = new Histogram[columns.size()];
+        private long rowsRead;
+        private long rowsMatched;
+        private long nextCheckpoint = checkpointInterval;
+
+        Pass(boolean counting, Map<String, double[]> ranges) {
+            this.counting = counting;
+            this.ranges = ranges;
+            for (int i = 0; i < stats.length; i++) {
+                stats[i] = new ColumnStats();
+                Aggregate aggregate = columns.get(i);
+                if (counting && aggregate.intervalCount > 0) {
+                    double[] range = Double.isNaN(aggregate.histogramMin)
+                            ? ranges.get(aggregate.columnName)
+                            : new double[] {aggregate.histogramMin, aggregate.histogramMax};
+                    histograms[i] = new Histogram(range[0], range[1], aggregate.intervalCount);
+                }
+            }
+        }
+
+        // Check the registered columns against the header with the same errors as the DataFrame methods.
+        @Override
+        public void start(List<String> columnHeaders, List<String> dataTypes) throws DataFrameException {
+            for (int i = 0; i < columnIndexes.length; i++) {
+                String columnName = columns.get(i).columnName;
+                int columnIndex = columnHeaders.indexOf(columnName);
+                if (columnIndex == -1) {
+                    throw new DataFrameException("Column '" + columnName + "' does not exist.");
+                }
+                if (!dataTypes.get(columnIndex).equals("double")) {
+                    throw new DataFrameException("Column '" + columnName + "' is not of type 'double'.");
+                }
+                columnIndexes[i] = columnIndex;
+            }
+        }
+
+        @Override
+        public void accept(DataFrame batch) throws DataFrameException {
+            List<Predicate> predicates = new ArrayList<>();
+            for (String condition : filters) {
+                predicates.add(ConditionParser.parse(condition, batch));
+            }
+            Column[] values = new Column[columnIndexes.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = batch.getColumn(columnIndexes[i]);
+            }
+
+            int rowCount = batch.getRowCount();
+            int from = 0;
+            while (from < rowCount) {
+                int to = rowCount;
+                if (counting && checkpointListener != null) {
+                    to = (int) Math.min(rowCount, from + (nextCheckpoint - rowsRead));
+                }
+                fold(predicates, values, from, to);
+                rowsRead += to - from;
+                if (counting && checkpointListener != null && rowsRead == nextCheckpoint) {
+                    checkpointListener.accept(results());
+                    nextCheckpoint += checkpointInterval;
+                }
+                from = to;
+            }
+        }
+
+        private void fold(List<Predicate> predicates, Column[] values, int from, int to) {
+            rows:
+            for (int row = from; row < to; row++) {
+                for (Predicate predicate : predicates) {
+                    if (!predicate.test(row)) {
+                        continue rows;
+                    }
+                }
+                rowsMatched++;
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i].isNull(row)) {
+                        continue;
+                    }
+                    double value = values[i].getDouble(row);
+                    stats[i].accept(value);
+                    if (histograms[i] != null) {
+                        histograms[i].add(value);
+                    }
+                }
+            }
+        }
+
+        // After a range pass, record the minimum and maximum of the matching values of every open-ended histogram.
+        void histogramRanges() throws DataFrameException {
+            for (int i = 0; i < stats.length; i++) {
+                Aggregate aggregate = columns.get(i);
+                if (aggregate.intervalCount > 0 && Double.isNaN(aggregate.histogramMin)) {
+                    if (stats[i].getCount() == 0) {
+                        throw new DataFrameException(
+                                "No valid data to create frequency table in column '" + aggregate.columnName + "'.");
+                    }
+                    ranges.put(aggregate.columnName, new double[] {stats[i].getMin(), stats[i].getMax()});
+                }
+            }
+        }
+
+        // A copy of the current state, so later batches do not change results already handed out.
+        Results results() {
+            Map<String, ColumnStats> statsCopy = new LinkedHashMap<>();
+            Map<String, Histogram> histogramCopy = new LinkedHashMap<>();
+            for (int i = 0; i < stats.length; i++) {
+                Aggregate aggregate = columns.get(i);
+                ColumnStats copy = new ColumnStats();
+                copy.merge(stats[i]);
+                statsCopy.put(aggregate.columnName, copy);
+                if (histograms[i] != null) {
+                    Histogram histogram = new Histogram(histograms[i].getMin(), histograms[i].getMax(),
+                            histograms[i].getBinCount());
+                    histogram.merge(histograms[i]);
+                    histogramCopy.put(aggregate.columnName, histogram);
+                }
+            }
+            return new Results(rowsRead, rowsMatched, statsCopy, histogramCopy, new LinkedHashMap<>(aggregates));
+        }
+    }
+
+    // Aggregates as of the end of the file or of a checkpoint.
+    public static class Results {
+        private final long rowsRead;
+        private final long rowsMatched;
+        private final Map<String, ColumnStats> stats;
+        private final Map<String, Histogram> histograms;
+        private final Map<String, Aggregate> registered;
+
+        private Results(long rowsRead, long rowsMatched, Map<String, ColumnStats> stats,
+                        Map<String, Histogram> histograms, Map<String, Aggregate> registered) {
+            this.rowsRead = rowsRead;
+            this.rowsMatched = rowsMatched;
+            this.stats = stats;
+            this.histograms = histograms;
+            this.registered = registered;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getRowsMatched() {
+            return rowsMatched;
+        }
+
+        public double getAverage(String columnName) throws DataFrameException {
+            ColumnStats columnStats = registeredStats(columnName, registered(columnName).average, "average");
+            if (columnStats.getCount() == 0) {
+                throw new DataFrameException("No valid data to calculate average in column '" + columnName + "'.");
+            }
+            return columnStats.getMean();
+        }
+
+        public double getMin(String columnName) throws DataFrameException {
+            ColumnStats columnStats = registeredStats(columnName, registered(columnName).min, "minimum");
+            if (columnStats.getCount() == 0) {
+                throw new DataFrameException("No valid data to find minimum in column '" + columnName + "'.");
+            }
+            return columnStats.getMin();
+        }
+
+        public double getMax(String columnName) throws DataFrameException {
+            ColumnStats columnStats = registeredStats(columnName, registered(columnName).max, "maximum");
+            if (columnStats.getCount() == 0) {
+                throw new DataFrameException("No valid data to find maximum in column '" + columnName + "'.");
+            }
+            return columnStats.getMax();
+        }
+
+        public Histogram getHistogram(String columnName) throws DataFrameException {
+            Histogram histogram = histograms.get(columnName);
+            if (histogram == null) {
+                throw new DataFrameException("No frequency table registered for column '" + columnName + "'.");
+            }
+            return histogram;
+        }
+
+        public Map<String, Integer> getFrequencyTable(String columnName) throws DataFrameException {
+            return Collections.unmodifiableMap(getHistogram(columnName).toFrequencyTable());
+        }
+
+        private Aggregate registered(String columnName) throws DataFrameException {
+            Aggregate aggregate = registered.get(columnName);
+            if (aggregate == null) {
+                throw new DataFrameException("No aggregate registered for column '" + columnName + "'.");
+            }
+            return aggregate;
+        }
+
+        private ColumnStats registeredStats(String columnName, boolean isRegistered, String name)
+                throws DataFrameException {
+            if (!isRegistered) {
+                throw new DataFrameException("No " + name + " registered for column '" + columnName + "'.");
+            }
+            return stats.get(columnName);
+        }
+    }
+}
@@ -0,0 +1,404 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Reads a CSV file (header line, types line, data lines) into a DataFrame. The data is cut into byte
+// ranges that end on a newline, and the ranges are parsed in parallel straight into typed column vectors.
+// Ranges are read into heap buffers or, in memory-mapped mode, mapped directly from the file. String columns
+// are dictionary-encoded while they have few distinct values (see DictionaryStringColumn). A field of exactly
+// \N is a null of any type, as CsvWriter writes nulls.
+class CsvReader {
+    // Receives the parsed header, then every parsed range in file order as a DataFrame batch.
+    interface BatchConsumer {
+        void start(List<String> columnHeaders, List<String> dataTypes) throws DataFrameException;
+
+        void accept(DataFrame batch) throws DataFrameException;
+    }
+
+    // Receives the columns of a parsed range with, when sketching, a HyperLogLog sketch per column.
+    private interface ChunkConsumer {
+        void accept(Column[] columns, HyperLogLog[] distinct) throws DataFrameException;
+    }
+
+    static final String NULL_FIELD = "\\N";
+    static final int CHUNK_BYTES = 1 << 23;
+    private static final int SCAN_BYTES = 1 << 16;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private static final int INT = 0;
+    private static final int DOUBLE = 1;
+    private static final int CHAR = 2;
+    private static final int STRING = 3;
+
+    private final FileChannel channel;
+    private final int parallelism;
+    private final boolean memoryMapped;
+    private boolean sketchDistinct; // sketch the distinct values of each range while it is hot in cache
+    private List<String> columnHeaders;
+    private List<String> dataTypes;
+    private int[] typeCodes;
+    private long dataStart;
+
+    private CsvReader(FileChannel channel, int parallelism, boolean memoryMapped) {
+        this.channel = channel;
+        this.parallelism = parallelism;
+        this.memoryMapped = memoryMapped;
+    }
+
+    // Read a CSV file; memory-mapped reads parse each range straight out of a MappedByteBuffer instead of
+    // copying it into the heap first, and map ranges one at a time so files over 2 GB work too. With
+    // sketchDistinct, every range is also sketched for approxDistinct.
+    static DataFrame read(String filePath, int parallelism, boolean memoryMapped, boolean sketchDistinct)
+            throws DataFrameException {
+        try (FileInputStream input = new FileInputStream(filePath); FileChannel channel = input.getChannel()) {
+            CsvReader reader = new CsvReader(channel, parallelism, memoryMapped);
+            reader.readHeader();
+            DataFrame dataFrame = new DataFrame();
+            dataFrame.setColumnHeaders(reader.columnHeaders);
+            dataFrame.setDataTypes(reader.dataTypes);
+            dataFrame.setParallelism(parallelism);
+            reader.sketchDistinct = sketchDistinct;
+            reader.readData(dataFrame::appendColumns);
+            return dataFrame;
+        } catch (IOException e) {
+            throw new DataFrameException("Error reading CSV file: " + e.getMessage());
+        }
+    }
+
+    // Read a CSV file without keeping it: each parsed range is handed to the consumer as a batch and dropped,
+    // so at most one wave of ranges is held in memory at a time.
+    static void stream(String filePath, int parallelism, boolean memoryMapped, BatchConsumer consumer)
+            throws DataFrameException {
+        try (FileInputStream input = new FileInputStream(filePath); FileChannel channel = input.getChannel()) {
+            CsvReader reader = new CsvReader(channel, parallelism, memoryMapped);
+            reader.readHeader();
+            consumer.start(reader.columnHeaders, reader.dataTypes);
+            reader.readData((columns, distinct) -> consumer.accept(
+                    new DataFrame(reader.columnHeaders, reader.dataTypes, Arrays.asList(columns), columns[0].size())));
+        } catch (IOException e) {
+            throw new DataFrameException("Error reading CSV file: " + e.getMessage());
+        }
+    }
+
+    // Parse the header and types lines and remember where the data lines begin.
+    private void readHeader() throws IOException, DataFrameException {
+        long size = channel.size();
+        List<String> lines = new ArrayList<>();
+        long window = SCAN_BYTES;
+        while (true) {
+            ByteBuffer buffer = segment(0, Math.min(size, window));
+            lines.clear();
+            int lineStart = 0;
+            while (lines.size() < 2) {
+                int end = indexOf(buffer, (byte) '\n', lineStart, buffer.limit());
+                if (end < 0) {
+                    break;
+                }
+                lines.add(decodeLine(buffer, lineStart, end));
+                lineStart = end + 1;
+            }
+            if (lines.size() < 2 && window < size) {
+                window *= 2; // a header line is longer than the window
+                continue;
+            }
+            if (lines.size() < 2 && lineStart < buffer.limit()) {
+                lines.add(decodeLine(buffer, lineStart, buffer.limit()));
+                lineStart = buffer.limit();
+            }
+            dataStart = lineStart;
+            break;
+        }
+
+        if (lines.isEmpty()) {
+            throw new DataFrameException("Empty CSV file.");
+        }
+        if (lines.size() < 2) {
+            throw new DataFrameException("Missing data types in CSV file.");
+        }
+        columnHeaders = Arrays.asList(lines.get(0).split(","));
+        dataTypes = Arrays.asList(lines.get(1).split(","));
+        if (columnHeaders.size() != dataTypes.size()) {
+            throw new DataFrameException("Mismatch between column headers and data types.");
+        }
+        typeCodes = new int[dataTypes.size()];
+        for (int i = 0; i < typeCodes.length; i++) {
+            typeCodes[i] = typeCode(dataTypes.get(i));
+        }
+    }
+
+    private static int typeCode(String type) throws DataFrameException {
+        switch (type) {
+            case "int":
+                return INT;
+            case "double":
+                return DOUBLE;
+            case "char":
+                return CHAR;
+            case "String":
+                return STRING;
+            default:
+                throw new DataFrameException("Invalid data type: " + type);
+        }
+    }
+
+    private static String decodeLine(ByteBuffer buffer, int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        return decode(buffer, start, end);
+    }
+
+    // Split the data into ranges and parse them in waves of a few ranges per thread, passing each wave on in order.
+    private void readData(ChunkConsumer consumer) throws IOException, DataFrameException {
+        List<Long> boundaries = chunkBoundaries();
+        int wave = Math.max(1, parallelism * 2);
+        for (int first = 0; first < boundaries.size() - 1; first += wave) {
+            int offset = first;
+            int count = Math.min(wave, boundaries.size() - 1 - first);
+            List<ParsedRange> ranges = ChunkExecutor.runChunks(count, parallelism,
+                    chunk -> parseRange(boundaries.get(offset + chunk), boundaries.get(offset + chunk + 1)));
+            for (ParsedRange range : ranges) {
+                consumer.accept(range.columns, range.distinct);
+            }
+        }
+    }
+
+    // Byte offsets [start, ..., end] of the data ranges; every inner boundary follows a newline.
+    private List<Long> chunkBoundaries() throws IOException, DataFrameException {
+        List<Long> boundaries = new ArrayList<>();
+        long size = channel.size();
+        long start = dataStart;
+        boundaries.add(start);
+        while (start + CHUNK_BYTES < size) {
+            long position = start + CHUNK_BYTES;
+            long boundary = size;
+            while (position < size) {
+                ByteBuffer scan = segment(position, Math.min(size, position + SCAN_BYTES));
+                int newline = indexOf(scan, (byte) '\n', 0, scan.limit());
+                if (newline >= 0) {
+                    boundary = position + newline + 1;
+                    break;
+                }
+                position += scan.limit();
+            }
+            if (boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+            start = boundary;
+        }
+        if (size > dataStart) {
+            boundaries.add(size);
+        }
+        return boundaries;
+    }
+
+    private static class ParsedRange {
+        final Column[] columns;
+        final HyperLogLog[] distinct;
+
+        ParsedRange(Column[] columns, HyperLogLog[] distinct) {
+            this.columns = columns;
+            this.distinct = distinct;
+        }
+    }
+
+    private ParsedRange parseRange(long start, long end) throws DataFrameException {
+        try {
+            ByteBuffer buffer = segment(start, end);
+            Column[] columns = parse(buffer, 0, buffer.limit());
+            if (!sketchDistinct) {
+                return new ParsedRange(columns, null);
+            }
+            HyperLogLog[] distinct = new HyperLogLog[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                distinct[i] = HyperLogLog.of(columns[i], 0, columns[i].size(), HyperLogLog.DEFAULT_PRECISION);
+            }
+            return new ParsedRange(columns, distinct);
+        } catch (IOException e) {
+            throw new DataFrameException("Error reading CSV file: " + e.getMessage());
+        }
+    }
+
+    // Bytes [start, end) of the file, either mapped in place or read into a heap buffer.
+    private ByteBuffer segment(long start, long end) throws IOException, DataFrameException {
+        if (memoryMapped) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                throw new DataFrameException("Error reading CSV file: unexpected end of file.");
+            }
+        }
+        return buffer.flip();
+    }
+
+    // Tokenize complete lines in [from, to) into new column vectors without regular expressions or row objects.
+    Column[] parse(ByteBuffer buffer, int from, int to) throws DataFrameException {
+        Column[] columns = new Column[typeCodes.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = typeCodes[i] == STRING ? new DictionaryStringColumn() : Column.forType(dataTypes.get(i));
+        }
+        int position = from;
+        while (position < to) {
+            int lineEnd = indexOf(buffer, (byte) '\n', position, to);
+            int next = lineEnd < 0 ? to : lineEnd + 1;
+            if (lineEnd < 0) {
+                lineEnd = to;
+            }
+            if (lineEnd > position && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            int fieldStart = position;
+            for (int i = 0; i < columns.length; i++) {
+                int fieldEnd = indexOf(buffer, (byte) ',', fieldStart, lineEnd);
+                if (fieldEnd < 0) {
+                    if (i < columns.length - 1) {
+                        throw new DataFrameException("Mismatch between data and column headers.");
+                    }
+                    fieldEnd = lineEnd;
+                } else if (i == columns.length - 1) {
+                    throw new DataFrameException("Mismatch between data and column headers.");
+                }
+                parseField(buffer, fieldStart, fieldEnd, typeCodes[i], columns[i]);
+                if (typeCodes[i] == STRING && columns[i] instanceof DictionaryStringColumn
+                        && ((DictionaryStringColumn) columns[i]).getDictionarySize() > DictionaryStringColumn.MAX_DICTIONARY_SIZE) {
+                    columns[i] = ((DictionaryStringColumn) columns[i]).toStringColumn();
+                }
+                fieldStart = fieldEnd + 1;
+            }
+            position = next;
+        }
+        // A range where most values are distinct gains nothing from a dictionary
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] instanceof DictionaryStringColumn
+                    && ((DictionaryStringColumn) columns[i]).getDictionarySize() > columns[i].size() / 2) {
+                columns[i] = ((DictionaryStringColumn) columns[i]).toStringColumn();
+            }
+        }
+        return columns;
+    }
+
+    private static void parseField(ByteBuffer buffer, int start, int end, int typeCode, Column column)
+            throws DataFrameException {
+        if (end - start == 2 && buffer.get(start) == '\\' && buffer.get(start + 1) == 'N') {
+            column.add(null);
+            return;
+        }
+        switch (typeCode) {
+            case INT:
+                ((IntColumn) column).addInt(parseInt(buffer, start, end));
+                break;
+            case DOUBLE:
+                ((DoubleColumn) column).addDouble(parseDouble(buffer, start, end));
+                break;
+            case CHAR:
+                if (start == end) {
+                    throw new DataFrameException("Invalid char value ''.");
+                }
+                byte first = buffer.get(start);
+                ((CharColumn) column).addChar(first >= 0 ? (char) first : decode(buffer, start, end).charAt(0));
+                break;
+            default:
+                if (column instanceof DictionaryStringColumn) {
+                    ((DictionaryStringColumn) column).addBytes(buffer, start, end);
+                } else {
+                    ((StringColumn) column).addString(decode(buffer, start, end));
+                }
+                break;
+        }
+    }
+
+    // Same accepted syntax as Integer.parseInt, read directly from the bytes.
+    static int parseInt(ByteBuffer buffer, int start, int end) throws DataFrameException {
+        int position = start;
+        boolean negative = false;
+        if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            negative = buffer.get(position) == '-';
+            position++;
+        }
+        if (position == end) {
+            throw new DataFrameException("Invalid int value '" + decode(buffer, start, end) + "'.");
+        }
+        long value = 0;
+        for (; position < end; position++) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DataFrameException("Invalid int value '" + decode(buffer, start, end) + "'.");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new DataFrameException("Invalid int value '" + decode(buffer, start, end) + "'.");
+            }
+        }
+        if (!negative && value > Integer.MAX_VALUE) {
+            throw new DataFrameException("Invalid int value '" + decode(buffer, start, end) + "'.");
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    // Plain decimals with at most 18 digits and 22 fraction digits are exact as mantissa / 10^k (one correctly
+    // rounded division, so the result equals Double.parseDouble); anything else falls back to Double.parseDouble.
+    static double parseDouble(ByteBuffer buffer, int start, int end) throws DataFrameException {
+        int position = start;
+        boolean negative = false;
+        if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            negative = buffer.get(position) == '-';
+            position++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; position < end; position++) {
+            byte b = buffer.get(position);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (position == end && digits > 0 && digits <= 18 && fractionDigits <= 22 && mantissa <= (1L << 53)) {
+            double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+            return negative ? -value : value;
+        }
+        String text = decode(buffer, start, end);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new DataFrameException("Invalid double value '" + text + "'.");
+        }
+    }
+
+    static String decode(ByteBuffer buffer, int start, int end) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, end - start, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
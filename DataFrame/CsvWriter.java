@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Writes a DataFrame as CSV (header line, types line, data lines) by formatting values straight from the
+// column vectors into one large byte buffer that is handed to a channel whenever it fills up.
+class CsvWriter {
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = CsvReader.NULL_FIELD.getBytes(StandardCharsets.UTF_8);
+
+    private final WritableByteChannel channel;
+    private final byte[] bytes = new byte[BUFFER_BYTES];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int position;
+
+    private CsvWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    static void write(DataFrame frame, WritableByteChannel channel) throws IOException {
+        CsvWriter writer = new CsvWriter(channel);
+        writer.writeLine(frame.getColumnHeaders());
+        writer.writeLine(frame.getDataTypes());
+
+        int columnCount = frame.columnCount();
+        Column[] columns = new Column[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = frame.getColumn(i);
+        }
+        for (int row = 0; row < frame.getRowCount(); row++) {
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    writer.writeByte((byte) ',');
+                }
+                writer.writeValue(columns[i], row);
+            }
+            writer.writeBytes(LINE_SEPARATOR);
+        }
+        writer.flush();
+    }
+
+    private void writeLine(List<String> values) throws IOException {
+        writeString(String.join(",", values));
+        writeBytes(LINE_SEPARATOR);
+    }
+
+    // Null cells are written as the null marker CsvReader reads back, since an empty field is an empty String.
+    private void writeValue(Column column, int row) throws IOException {
+        if (column.isNull(row)) {
+            writeBytes(NULL);
+            return;
+        }
+        switch (column.getType()) {
+            case "int":
+                writeLong(column.getInt(row));
+                break;
+            case "double":
+                writeDouble(column.getDouble(row));
+                break;
+            case "char":
+                writeChar(column.getChar(row));
+                break;
+            default:
+                Column base = SelectedColumn.baseOf(column);
+                if (base instanceof DictionaryStringColumn) {
+                    // encoded once per distinct value
+                    writeBytes(((DictionaryStringColumn) base).getBytes(base == column ? row : ((SelectedColumn) column).baseRow(row)));
+                } else {
+                    writeString(column.getString(row));
+                }
+                break;
+        }
+    }
+
+    // Same text as Double.toString; whole numbers below 10^7 are formatted without going through a String.
+    private void writeDouble(double value) throws IOException {
+        long whole = (long) value;
+        if (whole == value && Math.abs(value) < 1e7 && (whole != 0 || Double.doubleToRawLongBits(value) == 0)) {
+            writeLong(whole);
+            writeByte((byte) '.');
+            writeByte((byte) '0');
+        } else {
+            writeString(Double.toString(value));
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        ensure(20);
+        if (value < 0) {
+            bytes[position++] = '-';
+        } else {
+            value = -value; // format on the negative side so Long.MIN_VALUE fits
+        }
+        int end = position + digitCount(value);
+        position = end;
+        do {
+            bytes[--end] = (byte) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+    }
+
+    private static int digitCount(long negative) {
+        int count = 1;
+        while (negative <= -10) {
+            negative /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    private void writeChar(char value) throws IOException {
+        if (value < 0x80) {
+            writeByte((byte) value);
+        } else {
+            writeString(String.valueOf(value));
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        int length = value.length();
+        if (length <= BUFFER_BYTES) {
+            ensure(length);
+            int start = position;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    position = start; // not plain ASCII, encode the whole value instead
+                    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                bytes[position++] = (byte) c;
+            }
+        } else {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeBytes(byte[] value) throws IOException {
+        if (value.length > BUFFER_BYTES) {
+            flush();
+            write(ByteBuffer.wrap(value));
+            return;
+        }
+        ensure(value.length);
+        System.arraycopy(value, 0, bytes, position, value.length);
+        position += value.length;
+    }
+
+    private void writeByte(byte value) throws IOException {
+        ensure(1);
+        bytes[position++] = value;
+    }
+
+    private void ensure(int length) throws IOException {
+        if (BUFFER_BYTES - position < length) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.clear().limit(position);
+        write(buffer);
+        position = 0;
+    }
+
+    private void write(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+}
@@ -1,61 +1,222 @@
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.zip.GZIPOutputStream;
 
 public class DataFrame {
+    // An index is only used when its matching run holds at most 1/INDEX_SELECTIVITY of the rows.
+    private static final int INDEX_SELECTIVITY = 4;
+    // Results of this many condition terms are kept for reuse by later subsets.
+    private static final int FILTER_CACHE_SIZE = 16;
+
     private List<String> columnHeaders;
     private List<String> dataTypes;
-    private List<List<DataElement>> dataRows;
+    private List<Column> columns; // column-oriented storage, one typed vector per column
+    private int rowCount;
+    private ColumnStats[] statsCache = new ColumnStats[0]; // per column, null until first needed
+    private final Map<Integer, SortedIndex> indexes = new HashMap<>(); // by column index, opt-in via createIndex
+    private final Map<Integer, HashIndex> hashIndexes = new HashMap<>(); // by column index, opt-in via createHashIndex
+    private int modCount; // bumped by every change to the data, so indexes can tell they are stale
+    private boolean view; // columns are SelectedColumn views into another DataFrame's columns
+    private final Map<String, RowBitmap> filterCache = new LinkedHashMap<>(16, 0.75f, true); // in access order
+    private int filterCacheVersion;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private HyperLogLog[] distinctSketches = new HyperLogLog[0]; // per column, valid while distinctVersion == modCount
+    private int distinctVersion;
+    private boolean readOnly; // a snapshot, which refuses every change to its data
 
     public DataFrame() {
         this.columnHeaders = new ArrayList<>();
         this.dataTypes = new ArrayList<>();
-        this.dataRows = new ArrayList<>();
+        this.columns = new ArrayList<>();
     }
 
-    // Validate column name and type
-    private int validateColumn(String columnName, String expectedType) throws DataFrameException {
+    // Create a DataFrame over already filled column vectors.
+    DataFrame(List<String> columnHeaders, List<String> dataTypes, List<Column> columns, int rowCount) {
+        this.columnHeaders = columnHeaders;
+        this.dataTypes = dataTypes;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    // Create a DataFrame from a CSV file with a header line and a types line, parsing on all processors.
+    public static DataFrame fromCSV(String filePath, boolean memoryMapped) throws DataFrameException {
+        return fromCSV(filePath, memoryMapped, false);
+    }
+
+    // The same, also sketching the distinct values of every column while the rows are parsed, so the first
+    // approxDistinct call at the default precision or below needs no pass over the rows.
+    public static DataFrame fromCSV(String filePath, boolean memoryMapped, boolean sketchDistinct)
+            throws DataFrameException {
+        return CsvReader.read(filePath, Runtime.getRuntime().availableProcessors(), memoryMapped, sketchDistinct);
+    }
+
+    // Find the index of a column, failing if it does not exist
+    int findColumn(String columnName) throws DataFrameException {
         int columnIndex = columnHeaders.indexOf(columnName);
-        if (columnIndex == -1) {
+        if (columnIndex == -1 || columnIndex >= columnCount()) {
             throw new DataFrameException("Column '" + columnName + "' does not exist.");
         }
+        return columnIndex;
+    }
+
+    // Validate column name and type
+    private int validateColumn(String columnName, String expectedType) throws DataFrameException {
+        int columnIndex = findColumn(columnName);
         if (!dataTypes.get(columnIndex).equals(expectedType)) {
             throw new DataFrameException("Column '" + columnName + "' is not of type '" + expectedType + "'.");
         }
         return columnIndex;
     }
 
-    // Calculate the average value of a column with the given name.
-    public double averageColumn(String columnName) throws DataFrameException {
-        int columnIndex = validateColumn(columnName, "double");
-        double sum = 0;
-        int count = 0;
+    // Statistics of a column, computed on first use and then kept until the column changes.
+    private synchronized ColumnStats cachedStats(int columnIndex) throws DataFrameException {
+        if (statsCache.length <= columnIndex) {
+            statsCache = Arrays.copyOf(statsCache, columnCount());
+        }
+        if (statsCache[columnIndex] == null) {
+            statsCache[columnIndex] = columnStats(columns.get(columnIndex));
+        }
+        return statsCache[columnIndex];
+    }
+
+    private void invalidateStats() {
+        Arrays.fill(statsCache, null);
+    }
+
+    // Gather count, sum, sum of squares, min and max of a double column in one pass, chunk by chunk in parallel.
+    private ColumnStats columnStats(Column column) throws DataFrameException {
+        ColumnKernels kernels = column instanceof DoubleColumn ? ColumnKernels.KERNELS : null;
+        List<ColumnStats> partials = ChunkExecutor.runRows(rowCount, parallelism, (from, to) -> {
+            ColumnStats stats = new ColumnStats();
+            if (kernels != null) {
+                kernels.stats((DoubleColumn) column, from, to, stats);
+                return stats;
+            }
+            for (int row = from; row < to; row++) {
+                if (!column.isNull(row)) {
+                    stats.accept(column.getDouble(row));
+                }
+            }
+            return stats;
+        });
+        ColumnStats total = new ColumnStats();
+        for (ColumnStats partial : partials) {
+            total.merge(partial);
+        }
+        return total;
+    }
+
+    // Count, mean, sample variance and standard deviation, min, max and approximate median, 95th and 99th
+    // percentiles of the non-null values of an int or double column. Everything comes from one pass, chunk by
+    // chunk in parallel; the percentiles come from a mergeable KLL sketch rather than a sort.
+    public LinkedHashMap<String, Double> describe(String columnName) throws DataFrameException {
+        int columnIndex = findColumn(columnName);
+        String type = dataTypes.get(columnIndex);
+        if (!type.equals("int") && !type.equals("double")) {
+            throw new DataFrameException("Column '" + columnName + "' is not of type 'int' or 'double'.");
+        }
+        Column column = columns.get(columnIndex);
+        List<ColumnSummary> partials = ChunkExecutor.runRows(rowCount, parallelism, (from, to) -> {
+            ColumnSummary summary = new ColumnSummary();
+            if (column instanceof DoubleColumn) {
+                // Read the runs between nulls straight from the array
+                DoubleColumn doubles = (DoubleColumn) column;
+                double[] values = doubles.values();
+                int row = from;
+                while (row < to) {
+                    int nextNull = doubles.nextNull(row);
+                    int end = nextNull < 0 || nextNull > to ? to : nextNull;
+                    for (; row < end; row++) {
+                        summary.accept(values[row]);
+                    }
+                    row = end + 1;
+                }
+            } else if (type.equals("int")) {
+                for (int row = from; row < to; row++) {
+                    if (!column.isNull(row)) {
+                        summary.accept(column.getInt(row));
+                    }
+                }
+            } else {
+                for (int row = from; row < to; row++) {
+                    if (!column.isNull(row)) {
+                        summary.accept(column.getDouble(row));
+                    }
+                }
+            }
+            return summary;
+        });
+        ColumnSummary total = new ColumnSummary();
+        for (ColumnSummary partial : partials) {
+            total.merge(partial);
+        }
+        if (total.getCount() == 0) {
+            throw new DataFrameException("No valid data to describe in column '" + columnName + "'.");
+        }
+        LinkedHashMap<String, Double> description = new LinkedHashMap<>();
+        description.put("count", (double) total.getCount());
+        description.put("mean", total.getMean());
+        description.put("variance", total.getVariance());
+        description.put("stddev", Math.sqrt(total.getVariance()));
+        description.put("min", total.getMin());
+        description.put("max", total.getMax());
+        description.put("median", total.quantile(0.5));
+        description.put("p95", total.quantile(0.95));
+        description.put("p99", total.quantile(0.99));
+        return description;
+    }
+
+    // Approximate number of distinct non-null values in a column, from a HyperLogLog sketch at the default
+    // precision of 14 (about 0.8% standard error).
+    public long approxDistinct(String columnName) throws DataFrameException {
+        return approxDistinct(columnName, HyperLogLog.DEFAULT_PRECISION);
+    }
 
-        for (List<DataElement> row : dataRows) {
-            DataElement element = row.get(columnIndex);
-            if (element instanceof DoubleElement) {
-                sum += ((DoubleElement) element).getValue();
-                count++;
+    // The same with 2^precision registers, precision from 4 to 18; the error shrinks by half every two steps.
+    // Sketches made during a sketching fromCSV, or by an earlier call, are reused while the data is unchanged.
+    public synchronized long approxDistinct(String columnName, int precision) throws DataFrameException {
+        int columnIndex = findColumn(columnName);
+        if (precision < HyperLogLog.MIN_PRECISION || precision > HyperLogLog.MAX_PRECISION) {
+            throw new DataFrameException("Precision must be between " + HyperLogLog.MIN_PRECISION + " and "
+                    + HyperLogLog.MAX_PRECISION + ".");
+        }
+        if (distinctVersion != modCount || distinctSketches.length != columnCount()) {
+            distinctSketches = new HyperLogLog[columnCount()];
+            distinctVersion = modCount;
+        }
+        HyperLogLog sketch = distinctSketches[columnIndex];
+        if (sketch == null || sketch.getPrecision() < precision) {
+            Column column = columns.get(columnIndex);
+            List<HyperLogLog> partials = ChunkExecutor.runRows(rowCount, parallelism,
+                    (from, to) -> HyperLogLog.of(column, from, to, precision));
+            sketch = partials.get(0);
+            for (int i = 1; i < partials.size(); i++) {
+                sketch.merge(partials.get(i));
             }
+            distinctSketches[columnIndex] = sketch;
         }
+        return sketch.fold(precision).estimate();
+    }
 
-        if (count == 0) {
+    // Calculate the average value of a column with the given name.
+    public double averageColumn(String columnName) throws DataFrameException {
+        ColumnStats stats = cachedStats(validateColumn(columnName, "double"));
+
+        if (stats.getCount() == 0) {
             throw new DataFrameException("No valid data to calculate average in column '" + columnName + "'.");
         }
 
-        return sum / count;
+        return stats.getMean();
     }
 
     // Find the minimum value in a column with the given name.
     public double minColumn(String columnName) throws DataFrameException {
-        int columnIndex = validateColumn(columnName, "double");
-        double min = Double.POSITIVE_INFINITY;
-
-        for (List<DataElement> row : dataRows) {
-            DataElement element = row.get(columnIndex);
-            if (element instanceof DoubleElement) {
-                min = Math.min(min, ((DoubleElement) element).getValue());
-            }
-        }
+        double min = cachedStats(validateColumn(columnName, "double")).getMin();
 
         if (min == Double.POSITIVE_INFINITY) {
             throw new DataFrameException("No valid data to find minimum in column '" + columnName + "'.");
@@ -66,15 +227,7 @@ public class DataFrame {
 
     // Find the maximum value in a column with the given name.
     public double maxColumn(String columnName) throws DataFrameException {
-        int columnIndex = validateColumn(columnName, "double");
-        double max = Double.NEGATIVE_INFINITY;
-
-        for (List<DataElement> row : dataRows) {
-            DataElement element = row.get(columnIndex);
-            if (element instanceof DoubleElement) {
-                max = Math.max(max, ((DoubleElement) element).getValue());
-            }
-        }
+        double max = cachedStats(validateColumn(columnName, "double")).getMax();
 
         if (max == Double.NEGATIVE_INFINITY) {
             throw new DataFrameException("No valid data to find maximum in column '" + columnName + "'.");
@@ -85,154 +238,713 @@ public class DataFrame {
 
     // Create a frequency table for a column with the given name.
     public Map<String, Integer> frequencyTable(String columnName, int intervalCount) throws DataFrameException {
-        int columnIndex = validateColumn(columnName, "double");
-        double min = Double.POSITIVE_INFINITY;
-        double max = Double.NEGATIVE_INFINITY;
+        return histogram(columnName, intervalCount).toFrequencyTable();
+    }
 
-        // Find min and max
-        for (List<DataElement> row : dataRows) {
-            DataElement element = row.get(columnIndex);
-            if (element instanceof DoubleElement) {
-                double value = ((DoubleElement) element).getValue();
-                min = Math.min(min, value);
-                max = Math.max(max, value);
-            }
-        }
+    // Create an equal-width histogram spanning the minimum to the maximum of a column.
+    public Histogram histogram(String columnName, int intervalCount) throws DataFrameException {
+        int columnIndex = validateColumn(columnName, "double");
+        ColumnStats stats = cachedStats(columnIndex);
 
-        if (Double.isInfinite(min) || Double.isInfinite(max)) {
+        if (Double.isInfinite(stats.getMin()) || Double.isInfinite(stats.getMax())) {
             throw new DataFrameException("No valid data to create frequency table in column '" + columnName + "'.");
         }
 
-        // Calculate interval size
-        double intervalSize = (max - min) / intervalCount;
-        Map<String, Integer> frequencyTable = new LinkedHashMap<>();
+        return histogram(columns.get(columnIndex), intervalCount, stats.getMin(), stats.getMax());
+    }
 
-        // Initialize intervals
-        for (int i = 0; i < intervalCount; i++) {
-            double start = min + i * intervalSize;
-            double end = (i == intervalCount - 1) ? max : start + intervalSize;
-            frequencyTable.put(String.format("[%.2f - %.2f)", start, end), 0);
+    // Create an equal-width histogram over a given range in a single pass; values outside the range are not counted.
+    public Histogram histogram(String columnName, int intervalCount, double min, double max) throws DataFrameException {
+        if (!(min <= max)) {
+            throw new DataFrameException("Invalid histogram range [" + min + ", " + max + "].");
         }
+        return histogram(columns.get(validateColumn(columnName, "double")), intervalCount, min, max);
+    }
 
-        // Populate frequency table
-        for (List<DataElement> row : dataRows) {
-            DataElement element = row.get(columnIndex);
-            if (element instanceof DoubleElement) {
-                double value = ((DoubleElement) element).getValue();
-                for (String range : frequencyTable.keySet()) {
-                    String[] parts = range.replace("[", "").replace(")", "").split(" - ");
-                    double rangeStart = Double.parseDouble(parts[0]);
-                    double rangeEnd = Double.parseDouble(parts[1]);
-
-                    if (value >= rangeStart && value < rangeEnd) {
-                        frequencyTable.put(range, frequencyTable.get(range) + 1);
-                        break;
-                    }
+    private Histogram histogram(Column column, int intervalCount, double min, double max) throws DataFrameException {
+        if (intervalCount < 1) {
+            throw new DataFrameException("Number of intervals must be positive.");
+        }
+        ColumnKernels kernels = column instanceof DoubleColumn ? ColumnKernels.KERNELS : null;
+        List<Histogram> partials = ChunkExecutor.runRows(rowCount, parallelism, (from, to) -> {
+            Histogram histogram = new Histogram(min, max, intervalCount);
+            if (kernels != null) {
+                kernels.histogram((DoubleColumn) column, from, to, histogram);
+                return histogram;
+            }
+            for (int row = from; row < to; row++) {
+                if (!column.isNull(row)) {
+                    histogram.add(column.getDouble(row));
                 }
             }
+            return histogram;
+        });
+        Histogram total = new Histogram(min, max, intervalCount);
+        for (Histogram partial : partials) {
+            total.merge(partial);
+        }
+        return total;
+    }
+
+    // Start a grouped aggregation over one or more key columns; register aggregates on the returned GroupBy and
+    // call toDataFrame for one row per distinct key combination.
+    public GroupBy groupBy(String... keyColumnNames) throws DataFrameException {
+        if (keyColumnNames.length == 0) {
+            throw new DataFrameException("At least one key column is required.");
+        }
+        if (keyColumnNames.length > 63) {
+            throw new DataFrameException("At most 63 key columns are supported.");
+        }
+        int[] keyColumns = new int[keyColumnNames.length];
+        for (int i = 0; i < keyColumns.length; i++) {
+            keyColumns[i] = findColumn(keyColumnNames[i]);
         }
+        return new GroupBy(this, keyColumns);
+    }
+
+    // Join with another DataFrame on key columns present in both with the same types: one row per pair of rows
+    // with equal keys, ordered by this frame's rows, holding this frame's columns and then the other frame's
+    // non-key columns (renamed with a "_right" suffix where a name is taken). Null keys match nothing.
+    public DataFrame innerJoin(DataFrame right, String... keyColumnNames) throws DataFrameException {
+        return HashJoin.join(this, right, keyColumnNames, false);
+    }
 
-        return frequencyTable;
+    // The same as innerJoin, also keeping the rows of this frame without a match, with nulls in the other
+    // frame's columns.
+    public DataFrame leftJoin(DataFrame right, String... keyColumnNames) throws DataFrameException {
+        return HashJoin.join(this, right, keyColumnNames, true);
     }
 
-    // Create a subset DataFrame based on the given condition.
+    // Build a sorted index on a column so subsetDataFrame can binary-search '<', '>' and '==' on it instead of
+    // scanning. The index is rebuilt on the next subset after the DataFrame changes.
+    public synchronized void createIndex(String columnName) throws DataFrameException {
+        int columnIndex = findColumn(columnName);
+        indexes.put(columnIndex, new SortedIndex(columns.get(columnIndex), rowCount, modCount));
+    }
+
+    // Build a hash index on an int, char or String column so subsetDataFrame answers '==' and IN on it by
+    // looking up the matching rows. Rows added with addDataRow are indexed as they arrive.
+    public synchronized void createHashIndex(String columnName) throws DataFrameException {
+        int columnIndex = findColumn(columnName);
+        Column column = columns.get(columnIndex);
+        if (!HashIndex.supports(column)) {
+            throw new DataFrameException("Column '" + columnName + "' of type '" + column.getType() + "' cannot have a hash index.");
+        }
+        hashIndexes.put(columnIndex, new HashIndex(column, rowCount, modCount));
+    }
+
+    // Remove the sorted and hash indexes of a column.
+    public synchronized void dropIndex(String columnName) throws DataFrameException {
+        int columnIndex = findColumn(columnName);
+        indexes.remove(columnIndex);
+        hashIndexes.remove(columnIndex);
+    }
+
+    // Create a subset DataFrame based on the given condition. The subset is a view: its columns read the
+    // matching rows of snapshots of this DataFrame's columns through one shared array of row ids, and subsets
+    // of views select from the original columns directly. Call materialize for an independent copy.
     public DataFrame subsetDataFrame(String condition) throws DataFrameException {
-        String[] conditions = condition.split(" AND | OR ");
-        boolean isAnd = condition.contains(" AND ");
+        Predicate predicate = ConditionParser.parse(condition, this);
+
+        int[] selection = FilterEvaluator.evaluate(this, predicate).toArray();
+        return selectView(selection, selection.length);
+    }
 
+    // View of the given rows in the given order, whose columns all share one array of row ids into the base
+    // columns. The view reads snapshots of the base columns, so a later change here copies the changed array
+    // instead of reaching the view behind the back of its cached statistics and conditions.
+    private synchronized DataFrame selectView(int[] rows, int count) {
+        int[] selection = columns.isEmpty() ? rows : SelectedColumn.compose(columns.get(0), rows, count);
         DataFrame subset = new DataFrame();
         subset.columnHeaders = new ArrayList<>(this.columnHeaders);
         subset.dataTypes = new ArrayList<>(this.dataTypes);
+        for (Column column : columns) {
+            subset.columns.add(new SelectedColumn(SelectedColumn.baseOf(column).snapshot(), selection, count));
+        }
+        subset.view = true;
+        subset.rowCount = count;
+        subset.parallelism = parallelism;
+        return subset;
+    }
 
-        for (List<DataElement> row : this.dataRows) {
-            boolean matches = isAnd;
+    // Rows ordered by the given columns, each ascending or descending; nulls go last either way and ties keep
+    // their row order. The result is a view like subsetDataFrame's.
+    public DataFrame sortBy(List<String> columnNames, List<Boolean> ascending) throws DataFrameException {
+        int[] order = sortOrder(columnNames, ascending);
+        return selectView(order, order.length);
+    }
 
-            for (String cond : conditions) {
-                String[] parts = cond.split(" ");
-                if (parts.length < 3) {
-                    throw new DataFrameException("Invalid condition format. Example: 'columnName > value'.");
-                }
+    // Reorder the rows of this DataFrame the way sortBy orders them. Views stay views over reordered row ids.
+    public synchronized void sort(List<String> columnNames, List<Boolean> ascending) throws DataFrameException {
+        checkWritable();
+        int[] order = sortOrder(columnNames, ascending);
+        if (view) {
+            int[] selection = SelectedColumn.compose(columns.get(0), order, rowCount);
+            for (int i = 0; i < columns.size(); i++) {
+                columns.set(i, new SelectedColumn(SelectedColumn.baseOf(columns.get(i)), selection, rowCount));
+            }
+        } else {
+            for (int i = 0; i < columns.size(); i++) {
+                columns.set(i, columns.get(i).select(order, rowCount));
+            }
+        }
+        modCount++; // statistics do not depend on row order, but indexes and cached conditions hold row ids
+    }
+
+    // The n rows with the smallest (ascending) or largest values of a column: the first n rows of sortBy on that
+    // column, found with a bounded heap per thread instead of a full sort. The result is a view.
+    public DataFrame topN(String columnName, int n, boolean ascending) throws DataFrameException {
+        return topN(columnName, n, ascending, null);
+    }
+
+    // The same among the rows matching a subsetDataFrame condition.
+    public DataFrame topN(String condition, String columnName, int n, boolean ascending) throws DataFrameException {
+        return topN(columnName, n, ascending, FilterEvaluator.evaluate(this, ConditionParser.parse(condition, this)).toArray());
+    }
+
+    private DataFrame topN(String columnName, int n, boolean ascending, int[] candidates) throws DataFrameException {
+        if (n < 0) {
+            throw new DataFrameException("Row count must not be negative.");
+        }
+        Column column = columns.get(findColumn(columnName));
+        int count = candidates == null ? rowCount : candidates.length;
+        int[] top = TopNHeap.select(column, candidates, count, n, ascending, parallelism);
+        return selectView(top, top.length);
+    }
+
+    private int[] sortOrder(List<String> columnNames, List<Boolean> ascending) throws DataFrameException {
+        if (columnNames.isEmpty()) {
+            throw new DataFrameException("At least one sort column is required.");
+        }
+        if (columnNames.size() != ascending.size()) {
+            throw new DataFrameException("Expected one sort direction per sort column.");
+        }
+        Column[] sortColumns = new Column[columnNames.size()];
+        boolean[] directions = new boolean[columnNames.size()];
+        for (int i = 0; i < sortColumns.length; i++) {
+            sortColumns[i] = columns.get(findColumn(columnNames.get(i)));
+            directions[i] = ascending.get(i);
+        }
+        return RowSorter.sortedPermutation(sortColumns, directions, rowCount, parallelism);
+    }
 
-                String columnName = parts[0];
-                String operator = parts[1];
-                String valueStr = parts[2];
-                int columnIndex = validateColumn(columnName, dataTypes.get(columnHeaders.indexOf(columnName)));
-
-                DataElement element = row.get(columnIndex);
-                boolean match = false;
-
-                switch (operator) {
-                    case "<":
-                        match = element.compareTo(new DoubleElement(Double.parseDouble(valueStr))) < 0;
-                        break;
-                    case "==":
-                        match = element.getValue().toString().equals(valueStr);
-                        break;
-                    case ">":
-                        match = element.compareTo(new DoubleElement(Double.parseDouble(valueStr))) > 0;
-                        break;
-                    case "!=":
-                        match = !element.getValue().toString().equals(valueStr);
-                        break;
-                    default:
-                        throw new DataFrameException("Invalid operator '" + operator + "'.");
+    // Copy of the DataFrame whose columns hold their own values, e.g. to keep a subset without its parent.
+    public DataFrame materialize() {
+        columnCount();
+        int[] allRows = null;
+        List<Column> copies = new ArrayList<>();
+        for (Column column : columns) {
+            if (column instanceof SelectedColumn) {
+                copies.add(((SelectedColumn) column).materialize());
+            } else {
+                if (allRows == null) {
+                    allRows = new int[rowCount];
+                    Arrays.setAll(allRows, row -> row);
                 }
+                copies.add(column.select(allRows, rowCount));
+            }
+        }
+        DataFrame copy = new DataFrame(new ArrayList<>(columnHeaders), new ArrayList<>(dataTypes), copies, rowCount);
+        copy.parallelism = parallelism;
+        return copy;
+    }
 
-                if (isAnd) {
-                    matches = matches && match;
-                } else {
-                    matches = matches || match;
+    // Read-only copy of the DataFrame as it is now, for reading while other threads keep changing this one.
+    // Taking it is cheap: columns share their arrays copy-on-write (see Column.snapshot), and cached statistics,
+    // distinct-count sketches and current sorted indexes carry over. Every change holds this DataFrame's lock,
+    // so a snapshot holds all rows of an addDataRows batch or none of them. Snapshots never change, so any
+    // number of threads can read one while writers go on appending here without waiting for them.
+    public synchronized DataFrame snapshot() {
+        List<Column> frozen = new ArrayList<>();
+        for (int i = 0; i < columnCount(); i++) {
+            frozen.add(columns.get(i).snapshot());
+        }
+        DataFrame snapshot = new DataFrame(new ArrayList<>(columnHeaders), new ArrayList<>(dataTypes), frozen, rowCount);
+        snapshot.readOnly = true;
+        snapshot.view = view;
+        snapshot.parallelism = parallelism;
+        snapshot.modCount = modCount;
+        snapshot.statsCache = new ColumnStats[statsCache.length];
+        for (int i = 0; i < statsCache.length; i++) {
+            if (statsCache[i] != null) {
+                snapshot.statsCache[i] = new ColumnStats();
+                snapshot.statsCache[i].merge(statsCache[i]); // addDataRow keeps updating the original
+            }
+        }
+        if (distinctVersion == modCount) {
+            snapshot.distinctSketches = new HyperLogLog[distinctSketches.length];
+            for (int i = 0; i < distinctSketches.length; i++) {
+                snapshot.distinctSketches[i] = distinctSketches[i] == null ? null : distinctSketches[i].copy();
+            }
+            snapshot.distinctVersion = modCount;
+        }
+        for (Map.Entry<Integer, SortedIndex> entry : indexes.entrySet()) {
+            if (entry.getValue().getVersion() == modCount) {
+                snapshot.indexes.put(entry.getKey(), entry.getValue()); // sorted indexes are never changed once built
+            }
+        }
+        return snapshot;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("DataFrame snapshots are read-only.");
+        }
+    }
+
+    // Replace view columns by copies before the DataFrame is changed, so changes never reach the parent.
+    private void detachView() {
+        if (!view) {
+            return;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i) instanceof SelectedColumn) {
+                columns.set(i, ((SelectedColumn) columns.get(i)).materialize());
+            }
+        }
+        view = false;
+    }
+
+    // Rows matching a term according to an index, or null if no index answers it or the term matches too
+    // many rows for an index lookup to beat a scan.
+    synchronized RowBitmap indexedRows(Predicate term) {
+        int count = indexedCount(term);
+        if (count < 0 || count > rowCount / INDEX_SELECTIVITY) {
+            return null;
+        }
+        int[] rows = new int[count];
+        copyIndexedRows(term, rows, 0);
+        return RowBitmap.of(rowCount, rows, 0, count);
+    }
+
+    // How many rows an index says a term matches, or -1 if no index answers it. Equality prefers a hash index.
+    int indexedCount(Predicate term) {
+        if (term instanceof Predicate.In) {
+            int count = 0;
+            for (Predicate.Comparison value : ((Predicate.In) term).values) {
+                int valueCount = indexedCount(value);
+                if (valueCount < 0) {
+                    return -1;
                 }
+                count += valueCount;
             }
+            return count;
+        }
+        if (!(term instanceof Predicate.Comparison)) {
+            return -1;
+        }
+        Predicate.Comparison comparison = (Predicate.Comparison) term;
+        HashIndex hashIndex = comparison.operator == Predicate.Operator.EQUAL ? currentHashIndex(comparison.columnIndex) : null;
+        if (hashIndex != null) {
+            return hashIndex.count(comparison);
+        }
+        SortedIndex index = currentIndex(comparison.columnIndex);
+        int[] range = index == null ? null : index.range(comparison);
+        return range == null ? -1 : range[1] - range[0];
+    }
 
-            if (matches) {
-                subset.dataRows.add(new ArrayList<>(row));
+    private int copyIndexedRows(Predicate term, int[] rows, int position) {
+        if (term instanceof Predicate.In) {
+            for (Predicate.Comparison value : ((Predicate.In) term).values) {
+                position = copyIndexedRows(value, rows, position);
             }
+            return position;
         }
+        Predicate.Comparison comparison = (Predicate.Comparison) term;
+        HashIndex hashIndex = comparison.operator == Predicate.Operator.EQUAL ? currentHashIndex(comparison.columnIndex) : null;
+        if (hashIndex != null) {
+            return hashIndex.copyRows(comparison, rows, position);
+        }
+        SortedIndex index = currentIndex(comparison.columnIndex);
+        int[] range = index.range(comparison);
+        return index.copyRows(range[0], range[1], rows, position);
+    }
 
-        return subset;
+    // Result of a condition term evaluated over every row, if it is cached and the data has not changed since.
+    synchronized RowBitmap cachedFilter(String key) {
+        if (filterCacheVersion != modCount) {
+            filterCache.clear();
+            filterCacheVersion = modCount;
+        }
+        return filterCache.get(key);
+    }
+
+    // Keep the result of a condition term for later subsets, dropping the least recently used beyond the limit.
+    synchronized void cacheFilter(String key, RowBitmap rows) {
+        if (filterCacheVersion != modCount) {
+            filterCache.clear();
+            filterCacheVersion = modCount;
+        }
+        if (filterCache.size() >= FILTER_CACHE_SIZE) {
+            filterCache.remove(filterCache.keySet().iterator().next());
+        }
+        filterCache.put(key, rows);
+    }
+
+    // The sorted index on a column, rebuilt first if the data changed since it was built.
+    private synchronized SortedIndex currentIndex(int columnIndex) {
+        SortedIndex index = indexes.get(columnIndex);
+        if (index != null && index.getVersion() != modCount) {
+            index = new SortedIndex(columns.get(columnIndex), rowCount, modCount);
+            indexes.put(columnIndex, index);
+        }
+        return index;
+    }
+
+    // The hash index on a column, rebuilt first if the data changed other than by addDataRow.
+    private synchronized HashIndex currentHashIndex(int columnIndex) {
+        HashIndex index = hashIndexes.get(columnIndex);
+        if (index != null && index.getVersion() != modCount) {
+            index = new HashIndex(columns.get(columnIndex), rowCount, modCount);
+            hashIndexes.put(columnIndex, index);
+        }
+        return index;
     }
 
     // Export the DataFrame to a CSV file with the given file name.
     public void exportToCSV(String fileName) throws DataFrameException {
-        try (PrintWriter writer = new PrintWriter(new File(fileName))) {
-            writer.println(String.join(",", columnHeaders));
-            writer.println(String.join(",", dataTypes));
-
-            for (List<DataElement> row : dataRows) {
-                List<String> rowValues = new ArrayList<>();
-                for (DataElement element : row) {
-                    rowValues.add(element.getValue().toString());
-                }
-                writer.println(String.join(",", rowValues));
+        exportToCSV(fileName, false);
+    }
+
+    // Export the DataFrame to a CSV file written through a FileChannel, optionally gzip-compressed.
+    public void exportToCSV(String fileName, boolean gzip) throws DataFrameException {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (gzip) {
+                GZIPOutputStream output = new GZIPOutputStream(Channels.newOutputStream(channel), 1 << 16);
+                CsvWriter.write(this, Channels.newChannel(output));
+                output.finish();
+            } else {
+                CsvWriter.write(this, channel);
             }
-        } catch (FileNotFoundException e) {
+        } catch (IOException | InvalidPathException e) {
             throw new DataFrameException("Error writing to CSV file: " + e.getMessage());
         }
     }
 
+    // Export the DataFrame as CSV to an output stream, which is flushed but left open.
+    public void exportToCSV(OutputStream output) throws DataFrameException {
+        try {
+            CsvWriter.write(this, Channels.newChannel(output));
+            output.flush();
+        } catch (IOException e) {
+            throw new DataFrameException("Error writing CSV data: " + e.getMessage());
+        }
+    }
+
+    // Save the DataFrame in the binary columnar format read back by load.
+    public void save(String filePath) throws DataFrameException {
+        DataFrameFile.write(this, filePath);
+    }
+
+    // Load a DataFrame saved with save; each column is copied in bulk from the file instead of being parsed.
+    public static DataFrame load(String filePath) throws DataFrameException {
+        return DataFrameFile.read(filePath);
+    }
+
+    // Open a file written by save as a read-only DataFrame whose columns stay memory-mapped off the heap.
+    // Aggregations, subsets and exports read the mapping directly, and subsets are views over the mapped columns,
+    // so their rows stay off the heap too until materialize copies them.
+    public static DataFrame open(String filePath) throws DataFrameException {
+        return DataFrameFile.open(filePath);
+    }
+
     // Accessors and Mutators
     public List<String> getColumnHeaders() {
         return columnHeaders;
     }
 
-    public void setColumnHeaders(List<String> columnHeaders) {
+    public synchronized void setColumnHeaders(List<String> columnHeaders) {
+        checkWritable();
         this.columnHeaders = columnHeaders;
+        invalidateStats();
     }
 
     public List<String> getDataTypes() {
         return dataTypes;
     }
 
-    public void setDataTypes(List<String> dataTypes) {
+    public synchronized void setDataTypes(List<String> dataTypes) {
+        checkWritable();
         this.dataTypes = dataTypes;
+        invalidateStats();
+        indexes.clear();
+        hashIndexes.clear();
+        modCount++;
+        if (rowCount == 0) {
+            columns.clear(); // recreated from the new types on first use
+            view = false;
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
     }
 
+    // Number of threads used by column aggregations; 1 runs them on the calling thread.
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.parallelism = parallelism;
+    }
+
+    // Row-oriented view over the columns. Change a cell through set on a row or setValue on one of its elements;
+    // either writes through to the column.
     public List<List<DataElement>> getDataRows() {
-        return dataRows;
+        return new RowList();
+    }
+
+    public synchronized void addDataRow(List<DataElement> dataRow) {
+        addDataRows(Collections.singletonList(dataRow));
     }
 
-    public void addDataRow(List<DataElement> dataRow) {
-        this.dataRows.add(dataRow);
+    // Append several rows as one change: a snapshot holds all of them or none of them, and a row that does not
+    // fit the columns rejects the whole batch before any row is added.
+    public synchronized void addDataRows(List<List<DataElement>> dataRows) {
+        checkWritable();
+        detachView();
+        if (columnCount() == 0 && !dataRows.isEmpty()) {
+            for (DataElement element : dataRows.get(0)) {
+                columns.add(Column.forElement(element));
+            }
+        }
+        for (List<DataElement> dataRow : dataRows) {
+            if (dataRow.size() != columns.size()) {
+                throw new IllegalArgumentException("Mismatch between data row and column count.");
+            }
+            for (int i = 0; i < dataRow.size(); i++) {
+                if (!columns.get(i).accepts(dataRow.get(i))) {
+                    throw new IllegalArgumentException("Invalid element type for column " + i + ".");
+                }
+            }
+        }
+        int firstRow = rowCount;
+        for (List<DataElement> dataRow : dataRows) {
+            for (int i = 0; i < dataRow.size(); i++) {
+                columns.get(i).add(dataRow.get(i));
+                if (i < statsCache.length && statsCache[i] != null && !columns.get(i).isNull(rowCount)) {
+                    statsCache[i].accept(columns.get(i).getDouble(rowCount)); // keep cached statistics current
+                }
+            }
+            rowCount++;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            limitDictionary(i);
+        }
+        modCount++;
+        for (Map.Entry<Integer, HashIndex> entry : hashIndexes.entrySet()) {
+            if (entry.getValue().getVersion() == modCount - 1) {
+                for (int row = firstRow; row < rowCount; row++) {
+                    entry.getValue().append(columns.get(entry.getKey()), row, modCount);
+                }
+            }
+        }
+    }
+
+    // Append rows parsed into separate column vectors of the same types (used by CsvReader). The first chunk's
+    // vectors are adopted as they are, which also keeps the storage CsvReader chose, such as dictionary encoding.
+    synchronized void appendColumns(Column[] chunk, HyperLogLog[] distinct) {
+        checkWritable();
+        columnCount();
+        // Sketches made while parsing stay valid as long as every change since was an import with sketches
+        if (distinct == null || (rowCount > 0 && distinctVersion != modCount)) {
+            distinctSketches = new HyperLogLog[0];
+        } else if (rowCount == 0) {
+            distinctSketches = distinct.clone();
+        } else {
+            for (int i = 0; i < distinct.length && i < distinctSketches.length; i++) {
+                if (distinctSketches[i] != null) {
+                    distinctSketches[i].merge(distinct[i]);
+                }
+            }
+        }
+        for (int i = 0; i < chunk.length; i++) {
+            if (rowCount == 0) {
+                columns.set(i, chunk[i]);
+                continue;
+            }
+            columns.get(i).addAll(chunk[i]);
+            limitDictionary(i);
+        }
+        rowCount += chunk.length == 0 ? 0 : chunk[0].size();
+        invalidateStats();
+        modCount++;
+        distinctVersion = modCount;
+    }
+
+    // Replace a dictionary-encoded column whose dictionary outgrew MAX_DICTIONARY_SIZE by a plain StringColumn, the
+    // same limit CsvReader keeps during import.
+    private void limitDictionary(int columnIndex) {
+        Column column = columns.get(columnIndex);
+        if (column instanceof DictionaryStringColumn
+                && ((DictionaryStringColumn) column).getDictionarySize() > DictionaryStringColumn.MAX_DICTIONARY_SIZE) {
+            columns.set(columnIndex, ((DictionaryStringColumn) column).toStringColumn());
+        }
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    // Number of changes to the data so far, so a holder of a snapshot can tell whether it is still current.
+    synchronized int getModCount() {
+        return modCount;
+    }
+
+    // Number of columns, creating the column vectors from the data types if that has not happened yet.
+    synchronized int columnCount() {
+        if (columns.isEmpty()) {
+            for (String type : dataTypes) {
+                columns.add(Column.forType(type));
+            }
+        }
+        return columns.size();
+    }
+
+    Column getColumn(int columnIndex) {
+        columnCount();
+        return columns.get(columnIndex);
+    }
+
+    private class RowList extends AbstractList<List<DataElement>> implements RandomAccess {
+        @Override
+        public List<DataElement> get(int row) {
+            Objects.checkIndex(row, rowCount);
+            return new Row(row);
+        }
+
+        @Override
+        public int size() {
+            return rowCount;
+        }
+
+        @Override
+        public void add(int index, List<DataElement> dataRow) {
+            if (index != rowCount) {
+                throw new UnsupportedOperationException("Rows can only be appended.");
+            }
+            addDataRow(dataRow);
+        }
+    }
+
+    private class Row extends AbstractList<DataElement> implements RandomAccess {
+        private final int row;
+
+        Row(int row) {
+            this.row = row;
+        }
+
+        // The value of a cell as an element whose setValue writes back to the cell, as changing an element of
+        // the row lists did before the columns were typed. Null cells are null.
+        @Override
+        public DataElement get(int columnIndex) {
+            Column column = columns.get(columnIndex);
+            if (column.isNull(row)) {
+                return null;
+            }
+            switch (column.getType()) {
+                case "int":
+                    return new IntCell(column.getInt(row), columnIndex);
+                case "double":
+                    return new DoubleCell(column.getDouble(row), columnIndex);
+                case "char":
+                    return new CharCell(column.getChar(row), columnIndex);
+                default:
+                    return new StringCell(column.getString(row), columnIndex);
+            }
+        }
+
+        @Override
+        public DataElement set(int columnIndex, DataElement element) {
+            synchronized (DataFrame.this) {
+                checkWritable();
+                detachView();
+                Column column = columns.get(columnIndex);
+                DataElement previous = column.get(row);
+                column.set(row, element);
+                limitDictionary(columnIndex);
+                if (columnIndex < statsCache.length) {
+                    statsCache[columnIndex] = null;
+                }
+                DataFrame.this.modCount++;
+                return previous;
+            }
+        }
+
+        @Override
+        public int size() {
+            return columns.size();
+        }
+
+        // Cell elements check a new value's type on a fresh element first, so a rejected value changes neither
+        // the cell nor the element.
+        private class IntCell extends IntElement {
+            private final int columnIndex;
+
+            IntCell(int value, int columnIndex) {
+                super(value);
+                this.columnIndex = columnIndex;
+            }
+
+            @Override
+            public void setValue(Object value) {
+                IntElement updated = new IntElement(0);
+                updated.setValue(value);
+                Row.this.set(columnIndex, updated);
+                super.setValue(value);
+            }
+        }
+
+        private class DoubleCell extends DoubleElement {
+            private final int columnIndex;
+
+            DoubleCell(double value, int columnIndex) {
+                super(value);
+                this.columnIndex = columnIndex;
+            }
+
+            @Override
+            public void setValue(Object value) {
+                DoubleElement updated = new DoubleElement(0);
+                updated.setValue(value);
+                Row.this.set(columnIndex, updated);
+                super.setValue(value);
+            }
+        }
+
+        private class CharCell extends CharElement {
+            private final int columnIndex;
+
+            CharCell(char value, int columnIndex) {
+                super(value);
+                this.columnIndex = columnIndex;
+            }
+
+            @Override
+            public void setValue(Object value) {
+                CharElement updated = new CharElement((char) 0);
+                updated.setValue(value);
+                Row.this.set(columnIndex, updated);
+                super.setValue(value);
+            }
+        }
+
+        private class StringCell extends StringElement {
+            private final int columnIndex;
+
+            StringCell(String value, int columnIndex) {
+                super(value);
+                this.columnIndex = columnIndex;
+            }
+
+            @Override
+            public void setValue(Object value) {
+                StringElement updated = new StringElement("");
+                updated.setValue(value);
+                Row.this.set(columnIndex, updated);
+                super.setValue(value);
+            }
+        }
     }
 }
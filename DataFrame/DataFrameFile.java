@@ -0,0 +1,439 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+// Binary columnar file for saving a DataFrame and loading it back without parsing text.
+// Layout (little-endian, blocks 8-byte aligned):
+//   "DFRM", version, column count, row count, each column header and data type as length-prefixed UTF-8,
+//   then one long file offset per column block.
+//   Block: null count, non-null count, null bitmap words if there are nulls, then int[] / double[] / char[]
+//   values, or for a String column long[rows + 1] byte offsets followed by the UTF-8 bytes of every value.
+// Everything read is checked against the file size first, so a truncated or corrupt file is reported as such.
+class DataFrameFile {
+    private static final int MAGIC = 0x4d524644;
+    private static final int VERSION = 1;
+    private static final int BLOCK_HEADER_BYTES = 16; // null count and non-null count
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final int MAP_BYTES = 1 << 30;
+    private static final List<String> TYPES = Arrays.asList("int", "double", "char", "String");
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private long bufferStart;
+
+    private DataFrameFile(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static void write(DataFrame frame, String filePath) throws DataFrameException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            new DataFrameFile(channel).writeFrame(frame);
+        } catch (IOException | InvalidPathException e) {
+            throw new DataFrameException("Error writing DataFrame file: " + e.getMessage());
+        }
+    }
+
+    static DataFrame read(String filePath) throws DataFrameException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            Header header = readHeader(channel, filePath);
+            List<Column> columns = new ArrayList<>();
+            for (int i = 0; i < header.dataTypes.size(); i++) {
+                columns.add(readColumn(channel, block(channel, header, i, filePath), header.dataTypes.get(i), header.rowCount, filePath));
+            }
+            return new DataFrame(header.columnHeaders, header.dataTypes, columns, header.rowCount);
+        } catch (IOException | InvalidPathException e) {
+            throw new DataFrameException("Error reading DataFrame file: " + e.getMessage());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw corrupt(filePath, "cannot be decoded (" + e + ")");
+        }
+    }
+
+    // Map the columns of a saved DataFrame without copying them onto the heap.
+    static DataFrame open(String filePath) throws DataFrameException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            Header header = readHeader(channel, filePath);
+            List<Column> columns = new ArrayList<>();
+            for (int i = 0; i < header.dataTypes.size(); i++) {
+                columns.add(mapColumn(channel, block(channel, header, i, filePath), header.dataTypes.get(i), header.rowCount));
+            }
+            return new DataFrame(header.columnHeaders, header.dataTypes, columns, header.rowCount);
+        } catch (IOException | InvalidPathException e) {
+            throw new DataFrameException("Error reading DataFrame file: " + e.getMessage());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw corrupt(filePath, "cannot be decoded (" + e + ")");
+        }
+    }
+
+    private void writeFrame(DataFrame frame) throws IOException {
+        int columnCount = frame.columnCount();
+        int rowCount = frame.getRowCount();
+        List<String> columnHeaders = frame.getColumnHeaders();
+        putInt(MAGIC);
+        putInt(VERSION);
+        putInt(columnCount);
+        putInt(rowCount);
+        for (int i = 0; i < columnCount; i++) {
+            putString(i < columnHeaders.size() ? columnHeaders.get(i) : "");
+            putString(frame.getColumn(i).getType());
+        }
+        align();
+        long offsetTable = position();
+        for (int i = 0; i < columnCount; i++) {
+            putLong(0);
+        }
+        long[] blockOffsets = new long[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            blockOffsets[i] = position();
+            writeColumn(frame.getColumn(i), rowCount);
+            align();
+        }
+        flush();
+        patch(offsetTable, blockOffsets);
+    }
+
+    private void writeColumn(Column column, int rowCount) throws IOException {
+        long[] nullWords = new long[(rowCount + 63) / 64];
+        long nullCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (column.isNull(row)) {
+                nullWords[row >>> 6] |= 1L << row;
+                nullCount++;
+            }
+        }
+        putLong(nullCount);
+        putLong(rowCount - nullCount);
+        if (nullCount > 0) {
+            for (long word : nullWords) {
+                putLong(word);
+            }
+        }
+
+        switch (column.getType()) {
+            case "int":
+                for (int row = 0; row < rowCount; row++) {
+                    ensure(4);
+                    buffer.putInt(column.getInt(row));
+                }
+                break;
+            case "double":
+                for (int row = 0; row < rowCount; row++) {
+                    ensure(8);
+                    buffer.putDouble(column.getDouble(row));
+                }
+                break;
+            case "char":
+                for (int row = 0; row < rowCount; row++) {
+                    ensure(2);
+                    buffer.putChar(column.getChar(row));
+                }
+                break;
+            default:
+                long offsetTable = position();
+                for (int row = 0; row <= rowCount; row++) {
+                    putLong(0);
+                }
+                long dataStart = position();
+                long[] offsets = new long[rowCount + 1];
+                for (int row = 0; row < rowCount; row++) {
+                    String value = column.getString(row);
+                    if (value != null) {
+                        putBytes(value.getBytes(StandardCharsets.UTF_8));
+                    }
+                    offsets[row + 1] = position() - dataStart;
+                }
+                flush();
+                patch(offsetTable, offsets);
+                break;
+        }
+    }
+
+    // Overwrite already written longs at a file position.
+    private void patch(long filePosition, long[] values) throws IOException {
+        ByteBuffer patch = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < values.length; ) {
+            patch.clear();
+            int start = i;
+            while (i < values.length && patch.remaining() >= 8) {
+                patch.putLong(values[i++]);
+            }
+            patch.flip();
+            long target = filePosition + 8L * start;
+            while (patch.hasRemaining()) {
+                target += channel.write(patch, target);
+            }
+        }
+    }
+
+    private long position() {
+        return bufferStart + buffer.position();
+    }
+
+    private void align() throws IOException {
+        while (position() % 8 != 0) {
+            ensure(1);
+            buffer.put((byte) 0);
+        }
+    }
+
+    private void putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    private void putLong(long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+    }
+
+    private void putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        putBytes(bytes);
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        for (int offset = 0; offset < bytes.length; ) {
+            ensure(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void ensure(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bufferStart += channel.write(buffer, bufferStart);
+        }
+        buffer.clear();
+    }
+
+    static class Header {
+        List<String> columnHeaders = new ArrayList<>();
+        List<String> dataTypes = new ArrayList<>();
+        long[] blockOffsets;
+        int rowCount;
+        long size; // of the file
+    }
+
+    // Where the parts of a column block start, after they were checked to lie within the file.
+    static class Block {
+        long nullsOffset = -1; // -1 if the block has no null bitmap
+        long valuesOffset;
+        long dataLength; // bytes of String values after the offsets
+    }
+
+    static Header readHeader(FileChannel channel, String filePath) throws IOException, DataFrameException {
+        long size = channel.size();
+        if (size < 16) {
+            throw new DataFrameException("Not a DataFrame file: " + filePath);
+        }
+        ByteBuffer buffer = map(channel, 0, Math.min(size, Integer.MAX_VALUE));
+        if (buffer.getInt() != MAGIC) {
+            throw new DataFrameException("Not a DataFrame file: " + filePath);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new DataFrameException("Unsupported DataFrame file version: " + filePath);
+        }
+        Header header = new Header();
+        header.size = size;
+        int columnCount = buffer.getInt();
+        header.rowCount = buffer.getInt();
+        if (columnCount < 0 || header.rowCount < 0) {
+            throw corrupt(filePath, "has a negative column or row count");
+        }
+        for (int i = 0; i < columnCount; i++) {
+            header.columnHeaders.add(getString(buffer, filePath));
+            String type = getString(buffer, filePath);
+            if (!TYPES.contains(type)) {
+                throw corrupt(filePath, "has an invalid data type '" + type + "'");
+            }
+            header.dataTypes.add(type);
+        }
+        int tableStart = (buffer.position() + 7) & ~7;
+        if (tableStart + 8L * columnCount > buffer.limit()) {
+            throw corrupt(filePath, "ends inside its header");
+        }
+        buffer.position(tableStart);
+        header.blockOffsets = new long[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            long offset = buffer.getLong();
+            if (offset < tableStart + 8L * columnCount || offset % 8 != 0 || offset > size - BLOCK_HEADER_BYTES) {
+                throw corrupt(filePath, "has an invalid offset for column " + i);
+            }
+            header.blockOffsets[i] = offset;
+        }
+        return header;
+    }
+
+    private static String getString(ByteBuffer buffer, String filePath) throws DataFrameException {
+        if (buffer.remaining() < 4) {
+            throw corrupt(filePath, "ends inside its header");
+        }
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw corrupt(filePath, "ends inside its header");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Locate the null bitmap and values of a column, checking its counts against the row count and its extent
+    // against the file size.
+    static Block block(FileChannel channel, Header header, int column, String filePath)
+            throws IOException, DataFrameException {
+        long offset = header.blockOffsets[column];
+        ByteBuffer counts = map(channel, offset, BLOCK_HEADER_BYTES);
+        long nullCount = counts.getLong();
+        long nonNullCount = counts.getLong();
+        if (nullCount < 0 || nonNullCount < 0 || nullCount + nonNullCount != header.rowCount) {
+            throw corrupt(filePath, "has null counts for column " + column + " that do not match its row count");
+        }
+        Block block = new Block();
+        long position = offset + BLOCK_HEADER_BYTES;
+        if (nullCount > 0) {
+            block.nullsOffset = position;
+            position += 8L * ((header.rowCount + 63) / 64);
+        }
+        block.valuesOffset = position;
+        String type = header.dataTypes.get(column);
+        int width = type.equals("int") ? 4 : type.equals("double") ? 8 : type.equals("char") ? 2 : 8;
+        long end = position + (long) width * (type.equals("String") ? header.rowCount + 1 : header.rowCount);
+        if (end > header.size) {
+            throw corrupt(filePath, "ends inside column " + column);
+        }
+        if (type.equals("String")) {
+            block.dataLength = map(channel, end - 8, 8).getLong();
+            if (block.dataLength < 0 || block.dataLength > header.size - end) {
+                throw corrupt(filePath, "ends inside column " + column);
+            }
+        }
+        return block;
+    }
+
+    private static DataFrameException corrupt(String filePath, String problem) {
+        return new DataFrameException("Corrupt DataFrame file " + filePath + ": " + problem + ".");
+    }
+
+    // Null rows of a block, or null if the block has none.
+    private static BitSet readNulls(FileChannel channel, Block block, int rowCount) throws IOException {
+        if (block.nullsOffset < 0) {
+            return null;
+        }
+        long[] words = new long[(rowCount + 63) / 64];
+        readLongs(channel, block.nullsOffset, words, words.length);
+        return BitSet.valueOf(words);
+    }
+
+    private static Column readColumn(FileChannel channel, Block block, String type, int rowCount, String filePath)
+            throws IOException, DataFrameException {
+        BitSet nulls = readNulls(channel, block, rowCount);
+        long position = block.valuesOffset;
+        switch (type) {
+            case "int": {
+                int[] values = new int[Math.max(rowCount, 1)];
+                for (int done = 0; done < rowCount; ) {
+                    int count = Math.min(rowCount - done, MAP_BYTES / 4);
+                    map(channel, position + 4L * done, 4L * count).asIntBuffer().get(values, done, count);
+                    done += count;
+                }
+                return new IntColumn(values, nulls, rowCount);
+            }
+            case "double": {
+                double[] values = new double[Math.max(rowCount, 1)];
+                for (int done = 0; done < rowCount; ) {
+                    int count = Math.min(rowCount - done, MAP_BYTES / 8);
+                    map(channel, position + 8L * done, 8L * count).asDoubleBuffer().get(values, done, count);
+                    done += count;
+                }
+                return new DoubleColumn(values, nulls, rowCount);
+            }
+            case "char": {
+                char[] values = new char[Math.max(rowCount, 1)];
+                for (int done = 0; done < rowCount; ) {
+                    int count = Math.min(rowCount - done, MAP_BYTES / 2);
+                    map(channel, position + 2L * done, 2L * count).asCharBuffer().get(values, done, count);
+                    done += count;
+                }
+                return new CharColumn(values, nulls, rowCount);
+            }
+            default: {
+                long[] offsets = new long[rowCount + 1];
+                readLongs(channel, position, offsets, offsets.length);
+                long dataStart = position + 8L * offsets.length;
+                String[] values = new String[Math.max(rowCount, 1)];
+                ByteBuffer window = null;
+                long windowStart = 0;
+                for (int row = 0; row < rowCount; row++) {
+                    if (offsets[row] < 0 || offsets[row + 1] < offsets[row] || offsets[row + 1] > block.dataLength
+                            || offsets[row + 1] - offsets[row] > MAP_BYTES) {
+                        throw corrupt(filePath, "has an invalid String offset in row " + row);
+                    }
+                    if (nulls != null && nulls.get(row)) {
+                        continue;
+                    }
+                    long start = dataStart + offsets[row];
+                    int length = (int) (offsets[row + 1] - offsets[row]);
+                    if (window == null || start + length > windowStart + window.limit()) {
+                        windowStart = start;
+                        window = map(channel, start, Math.max(length, Math.min(MAP_BYTES, channel.size() - start)));
+                    }
+                    values[row] = CsvReader.decode(window, (int) (start - windowStart), (int) (start - windowStart) + length);
+                }
+                return new StringColumn(values, rowCount);
+            }
+        }
+    }
+
+    // String offsets are not scanned here, which would read the whole offset table. block checks the last one,
+    // the length of the values, and MappedStringColumn each one it reads.
+    private static Column mapColumn(FileChannel channel, Block block, String type, int rowCount)
+            throws IOException {
+        long position = block.valuesOffset;
+        MappedRegion nulls = block.nullsOffset < 0 ? null
+                : new MappedRegion(channel, block.nullsOffset, position - block.nullsOffset);
+        switch (type) {
+            case "int":
+                return new MappedIntColumn(new MappedRegion(channel, position, 4L * rowCount), nulls, rowCount);
+            case "double":
+                return new MappedDoubleColumn(new MappedRegion(channel, position, 8L * rowCount), nulls, rowCount);
+            case "char":
+                return new MappedCharColumn(new MappedRegion(channel, position, 2L * rowCount), nulls, rowCount);
+            default:
+                long dataStart = position + 8L * (rowCount + 1);
+                return new MappedStringColumn(new MappedRegion(channel, position, dataStart - position),
+                        new MappedRegion(channel, dataStart, block.dataLength), block.dataLength, nulls, rowCount);
+        }
+    }
+
+    private static void readLongs(FileChannel channel, long position, long[] values, int length) throws IOException {
+        for (int done = 0; done < length; ) {
+            int count = Math.min(length - done, MAP_BYTES / 8);
+            map(channel, position + 8L * done, 8L * count).asLongBuffer().get(values, done, count);
+            done += count;
+        }
+    }
+
+    static ByteBuffer map(FileChannel channel, long position, long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Evaluates a condition into a RowBitmap one column-level term at a time. Every comparison and IN list is
+// evaluated on its own, block by block in parallel, from an index or straight off its column. The tree is then
+// combined with bitmap AND, OR and ANDNOT. Terms evaluated over all rows are cached on the DataFrame, so repeated
+// conditions are not scanned again. AND-ed terms are evaluated most selective first. Once the rows left are
+// few, the remaining terms only test those rows.
+class FilterEvaluator {
+    // Test the remaining terms row by row once fewer than 1/SPARSE_FRACTION of the rows are left.
+    private static final int SPARSE_FRACTION = 32;
+
+    private final DataFrame frame;
+    private final int rowCount;
+
+    private FilterEvaluator(DataFrame frame) {
+        this.frame = frame;
+        this.rowCount = frame.getRowCount();
+    }
+
+    static RowBitmap evaluate(DataFrame frame, Predicate predicate) throws DataFrameException {
+        return new FilterEvaluator(frame).evaluate(predicate, null);
+    }
+
+    // Rows matching the predicate among the rows of within (null for every row).
+    private RowBitmap evaluate(Predicate predicate, RowBitmap within) throws DataFrameException {
+        if (predicate instanceof Predicate.And) {
+            List<Predicate> terms = new ArrayList<>();
+            Predicate.collectConjuncts(predicate, terms);
+            terms.sort((a, b) -> Long.compare(selectivity(a), selectivity(b)));
+            RowBitmap result = within;
+            for (Predicate term : terms) {
+                result = evaluate(term, result);
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+        if (predicate instanceof Predicate.Or) {
+            Predicate.Or or = (Predicate.Or) predicate;
+            return evaluate(or.left, within).or(evaluate(or.right, within));
+        }
+        if (predicate instanceof Predicate.Not) {
+            RowBitmap operand = evaluate(((Predicate.Not) predicate).operand, within);
+            return (within == null ? RowBitmap.all(rowCount) : within).andNot(operand);
+        }
+        return evaluateTerm(predicate, within);
+    }
+
+    // Rows an index says a term matches, or more than rowCount for terms without a usable index, so that
+    // indexed terms sort first.
+    private long selectivity(Predicate term) {
+        int count = frame.indexedCount(term);
+        return count >= 0 ? count : (long) rowCount + 1;
+    }
+
+    private RowBitmap evaluateTerm(Predicate term, RowBitmap within) throws DataFrameException {
+        String key = term instanceof Predicate.Comparison ? ((Predicate.Comparison) term).key
+                : term instanceof Predicate.In ? ((Predicate.In) term).key : null;
+        RowBitmap cached = key == null ? null : frame.cachedFilter(key);
+        if (cached != null) {
+            return within == null ? cached : cached.and(within);
+        }
+        if (within != null && within.cardinality() <= rowCount / SPARSE_FRACTION) {
+            return testRows(term, within);
+        }
+        RowBitmap result = frame.indexedRows(term);
+        if (result == null) {
+            result = scan(term);
+        }
+        if (key != null) {
+            frame.cacheFilter(key, result);
+        }
+        return within == null ? result : result.and(within);
+    }
+
+    // Evaluate a term over every row, one bitmap container per task.
+    private RowBitmap scan(Predicate term) throws DataFrameException {
+        int containerCount = RowBitmap.containerCount(rowCount);
+        List<Object> containers = ChunkExecutor.runChunks(Math.max(containerCount, 1), frame.getParallelism(), chunk -> {
+            int from = chunk * RowBitmap.CONTAINER_ROWS;
+            int to = Math.min(rowCount, from + RowBitmap.CONTAINER_ROWS);
+            long[] words = new long[RowBitmap.WORDS];
+            term.evaluate(from, to, words);
+            return RowBitmap.container(words);
+        });
+        return new RowBitmap(rowCount, containers.subList(0, containerCount).toArray());
+    }
+
+    private RowBitmap testRows(Predicate term, RowBitmap within) {
+        int[] rows = within.toArray();
+        int count = 0;
+        for (int row : rows) {
+            if (term.test(row)) {
+                rows[count++] = row;
+            }
+        }
+        return RowBitmap.of(rowCount, rows, 0, count);
+    }
+}
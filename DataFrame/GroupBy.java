@@ -0,0 +1,308 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+// Grouped aggregation over one or more key columns, built with DataFrame.groupBy:
+//     df.groupBy("country", "year").count().mean("price").max("price").toDataFrame()
+// Rows are grouped by a hash aggregation over a GroupTable. Every key value is first turned into a long code:
+// int and char values are their own code, doubles their bits, and Strings a dictionary code. A single char or
+// String key skips the hash lookup for codes seen before. With parallelism above one, each thread aggregates its
+// own contiguous part of the rows and the tables are merged in row order.
+// The result has one row per group, in order of first occurrence: the key columns, then one column per
+// aggregate.
+public class GroupBy {
+    // Rows whose key codes and values are read into arrays at a time.
+    private static final int BLOCK_ROWS = 1024;
+
+    private enum Kind {
+        COUNT, SUM, MEAN, MIN, MAX
+    }
+
+    private final DataFrame frame;
+    private final int[] keyColumns;
+    private final List<Kind> kinds = new ArrayList<>();
+    private final List<String> valueColumnNames = new ArrayList<>(); // null for count
+
+    GroupBy(DataFrame frame, int[] keyColumns) {
+        this.frame = frame;
+        this.keyColumns = keyColumns;
+    }
+
+    // Number of rows in each group, as an int column named "count".
+    public GroupBy count() {
+        return add(Kind.COUNT, null);
+    }
+
+    // Sum of the non-null values of an int or double column per group, as "sum(column)"; 0 for no values.
+    public GroupBy sum(String columnName) {
+        return add(Kind.SUM, columnName);
+    }
+
+    // Average of the non-null values of an int or double column per group, as "mean(column)"; null for no values.
+    public GroupBy mean(String columnName) {
+        return add(Kind.MEAN, columnName);
+    }
+
+    // Minimum of the non-null values of an int or double column per group, as "min(column)"; null for no values.
+    public GroupBy min(String columnName) {
+        return add(Kind.MIN, columnName);
+    }
+
+    // Maximum of the non-null values of an int or double column per group, as "max(column)"; null for no values.
+    public GroupBy max(String columnName) {
+        return add(Kind.MAX, columnName);
+    }
+
+    private GroupBy add(Kind kind, String columnName) {
+        kinds.add(kind);
+        valueColumnNames.add(columnName);
+        return this;
+    }
+
+    // Run the aggregation and return one row per group.
+    public DataFrame toDataFrame() throws DataFrameException {
+        List<Integer> valueColumns = new ArrayList<>(); // distinct value columns, aggregated once each
+        int[] valueOf = new int[kinds.size()];
+        for (int i = 0; i < kinds.size(); i++) {
+            if (kinds.get(i) == Kind.COUNT) {
+                continue;
+            }
+            int columnIndex = frame.findColumn(valueColumnNames.get(i));
+            String type = frame.getDataTypes().get(columnIndex);
+            if (!type.equals("int") && !type.equals("double")) {
+                throw new DataFrameException("Column '" + valueColumnNames.get(i) + "' is not of type 'int' or 'double'.");
+            }
+            if (!valueColumns.contains(columnIndex)) {
+                valueColumns.add(columnIndex);
+            }
+            valueOf[i] = valueColumns.indexOf(columnIndex);
+        }
+
+        int rowCount = frame.getRowCount();
+        KeyColumn[] keys = new KeyColumn[keyColumns.length];
+        for (int k = 0; k < keys.length; k++) {
+            keys[k] = new KeyColumn(frame.getColumn(keyColumns[k]), rowCount);
+        }
+        Column[] values = new Column[valueColumns.size()];
+        for (int v = 0; v < values.length; v++) {
+            values[v] = frame.getColumn(valueColumns.get(v));
+        }
+
+        int parts = Math.max(1, Math.min(frame.getParallelism(), rowCount / ChunkExecutor.CHUNK_SIZE));
+        List<GroupTable> tables = ChunkExecutor.runChunks(parts, parts, part -> {
+            int from = (int) ((long) rowCount * part / parts);
+            int to = (int) ((long) rowCount * (part + 1) / parts);
+            return aggregate(keys, values, from, to);
+        });
+        GroupTable table = tables.get(0);
+        for (int part = 1; part < parts; part++) {
+            table.merge(tables.get(part));
+        }
+        return result(table, valueOf);
+    }
+
+    // Aggregate rows [from, to) a block at a time: the key codes and values of a block are read column by column
+    // into arrays first, so each column is read in its own tight loop rather than through a call per row.
+    private GroupTable aggregate(KeyColumn[] keys, Column[] values, int from, int to) {
+        GroupTable table = new GroupTable(keys.length + 1, values.length);
+        long[][] codes = new long[keys.length][BLOCK_ROWS];
+        long[] nullMasks = new long[BLOCK_ROWS];
+        int[] groups = new int[BLOCK_ROWS];
+        double[] block = new double[BLOCK_ROWS];
+        boolean[] present = new boolean[BLOCK_ROWS];
+        long[] key = new long[keys.length + 1];
+        // A single key with a small range of codes is looked up in an array of group + 1 by code + 1 (0 for null),
+        // going to the hash table only the first time a code is seen
+        int range = keys.length == 1 ? keys[0].range() : -1;
+        int[] direct = range >= 0 ? new int[range + 1] : null;
+        for (int start = from; start < to; start += BLOCK_ROWS) {
+            int count = Math.min(BLOCK_ROWS, to - start);
+            Arrays.fill(nullMasks, 0, count, 0);
+            for (int k = 0; k < keys.length; k++) {
+                keys[k].fill(start, count, codes[k], nullMasks, 1L << k);
+            }
+            for (int i = 0; i < count; i++) {
+                int slot = direct == null ? 0 : nullMasks[i] != 0 ? 0 : (int) codes[0][i] + 1;
+                int group = direct == null ? -1 : direct[slot] - 1;
+                if (group < 0) {
+                    for (int k = 0; k < keys.length; k++) {
+                        key[k] = codes[k][i];
+                    }
+                    key[keys.length] = nullMasks[i];
+                    group = table.group(key, start + i);
+                    if (direct != null) {
+                        direct[slot] = group + 1;
+                    }
+                }
+                groups[i] = group;
+                table.addRow(group);
+            }
+            for (int v = 0; v < values.length; v++) {
+                fillValues(values[v], start, count, block, present);
+                for (int i = 0; i < count; i++) {
+                    if (present[i]) {
+                        table.addValue(groups[i], v, block[i]);
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    // Values of count rows from start of an int or double column, and whether each is non-null.
+    private static void fillValues(Column column, int start, int count, double[] block, boolean[] present) {
+        if (column instanceof DoubleColumn) {
+            DoubleColumn doubles = (DoubleColumn) column;
+            System.arraycopy(doubles.values(), start, block, 0, count);
+            Arrays.fill(present, 0, count, true);
+            for (int row = doubles.nextNull(start); row >= 0 && row < start + count; row = doubles.nextNull(row + 1)) {
+                present[row - start] = false;
+            }
+        } else if (column.getType().equals("int")) {
+            for (int i = 0; i < count; i++) {
+                present[i] = !column.isNull(start + i);
+                block[i] = present[i] ? column.getInt(start + i) : 0;
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                present[i] = !column.isNull(start + i);
+                block[i] = present[i] ? column.getDouble(start + i) : 0;
+            }
+        }
+    }
+
+    private DataFrame result(GroupTable table, int[] valueOf) {
+        int groupCount = table.size();
+        int[] firstRows = new int[groupCount];
+        for (int group = 0; group < groupCount; group++) {
+            firstRows[group] = table.firstRow(group);
+        }
+        List<String> headers = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        List<Column> columns = new ArrayList<>();
+        for (int columnIndex : keyColumns) {
+            headers.add(frame.getColumnHeaders().get(columnIndex));
+            types.add(frame.getDataTypes().get(columnIndex));
+            columns.add(frame.getColumn(columnIndex).select(firstRows, groupCount));
+        }
+        for (int i = 0; i < kinds.size(); i++) {
+            Kind kind = kinds.get(i);
+            if (kind == Kind.COUNT) {
+                int[] counts = new int[Math.max(groupCount, 1)];
+                for (int group = 0; group < groupCount; group++) {
+                    counts[group] = (int) table.rowCount(group);
+                }
+                headers.add("count");
+                types.add("int");
+                columns.add(new IntColumn(counts, null, groupCount));
+                continue;
+            }
+            int value = valueOf[i];
+            double[] results = new double[Math.max(groupCount, 1)];
+            BitSet nulls = null;
+            for (int group = 0; group < groupCount; group++) {
+                long count = table.count(group, value);
+                if (count == 0 && kind != Kind.SUM) {
+                    if (nulls == null) {
+                        nulls = new BitSet();
+                    }
+                    nulls.set(group);
+                    continue;
+                }
+                switch (kind) {
+                    case SUM:
+                        results[group] = table.sum(group, value);
+                        break;
+                    case MEAN:
+                        results[group] = table.sum(group, value) / count;
+                        break;
+                    case MIN:
+                        results[group] = table.min(group, value);
+                        break;
+                    default:
+                        results[group] = table.max(group, value);
+                        break;
+                }
+            }
+            headers.add(kind.name().toLowerCase() + "(" + valueColumnNames.get(i) + ")");
+            types.add("double");
+            columns.add(new DoubleColumn(results, nulls, groupCount));
+        }
+        DataFrame result = new DataFrame(headers, types, columns, groupCount);
+        result.setParallelism(frame.getParallelism());
+        return result;
+    }
+
+    // Reads the long codes of one key column: int and char values as they are, doubles as their bits and Strings
+    // as dictionary codes. Dictionary-encoded columns (and views of them) already hold codes; other String
+    // columns are encoded into a dictionary of their own first, which the parallel parts then share.
+    private static class KeyColumn {
+        private final Column column;
+        private final String type;
+        private DictionaryStringColumn dictionaryColumn;
+        private SelectedColumn view;
+        private int[] stringCodes; // -1 for null
+        private int dictionarySize; // of the codes in stringCodes
+
+        KeyColumn(Column column, int rowCount) {
+            this.column = column;
+            this.type = column.getType();
+            if (!type.equals("String")) {
+                return;
+            }
+            Column base = SelectedColumn.baseOf(column);
+            if (base instanceof DictionaryStringColumn) {
+                dictionaryColumn = (DictionaryStringColumn) base;
+                view = column instanceof SelectedColumn ? (SelectedColumn) column : null;
+                return;
+            }
+            StringDictionary dictionary = new StringDictionary();
+            stringCodes = new int[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                stringCodes[row] = column.isNull(row) ? -1 : dictionary.code(column.getString(row));
+            }
+            dictionarySize = dictionary.size();
+        }
+
+        // Number of distinct codes if they are known to be in [0, range) and few enough for an array, else -1.
+        int range() {
+            if (type.equals("char")) {
+                return Character.MAX_VALUE + 1;
+            }
+            if (stringCodes != null) {
+                return dictionarySize;
+            }
+            return dictionaryColumn != null ? dictionaryColumn.getDictionarySize() : -1;
+        }
+
+        // Codes of count rows from start, setting nullBit in nullMasks for null rows (whose code is left 0).
+        void fill(int start, int count, long[] codes, long[] nullMasks, long nullBit) {
+            if (type.equals("String")) {
+                for (int i = 0; i < count; i++) {
+                    int row = start + i;
+                    int code = stringCodes != null ? stringCodes[row]
+                            : dictionaryColumn.getCode(view == null ? row : view.baseRow(row));
+                    codes[i] = Math.max(code, 0);
+                    if (code < 0) {
+                        nullMasks[i] |= nullBit;
+                    }
+                }
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                int row = start + i;
+                if (column.isNull(row)) {
+                    codes[i] = 0;
+                    nullMasks[i] |= nullBit;
+                } else if (type.equals("int")) {
+                    codes[i] = column.getInt(row);
+                } else if (type.equals("char")) {
+                    codes[i] = column.getChar(row);
+                } else {
+                    codes[i] = Double.doubleToLongBits(column.getDouble(row));
+                }
+            }
+        }
+    }
+}
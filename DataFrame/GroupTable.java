@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+// Open-addressing hash table from group keys to dense group numbers, holding the running aggregates of every
+// group in primitive arrays. A key is a tuple of long codes, one per key column (see GroupBy), followed by a
+// mask of the key columns that are null. Groups are numbered in the order they are first added, and value
+// sums are compensated (Neumaier) like ColumnStats.
+class GroupTable {
+    private final int width; // longs per key
+    private final int valueCount; // value columns aggregated per group
+    private long[] keys;
+    private int[] hashes;
+    private long[] slots = new long[16]; // per slot the key hash in the high half and group + 1 in the low half, 0 is empty
+    private int[] firstRows;
+    private long[] rowCounts;
+    private final long[][] counts; // [value column][group], non-null values seen
+    private final double[][] sums;
+    private final double[][] compensations;
+    private final double[][] mins;
+    private final double[][] maxs;
+    private int size;
+
+    GroupTable(int width, int valueCount) {
+        this.width = width;
+        this.valueCount = valueCount;
+        this.keys = new long[8 * width];
+        this.hashes = new int[8];
+        this.firstRows = new int[8];
+        this.rowCounts = new long[8];
+        this.counts = new long[valueCount][8];
+        this.sums = new double[valueCount][8];
+        this.compensations = new double[valueCount][8];
+        this.mins = new double[valueCount][8];
+        this.maxs = new double[valueCount][8];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // First row of a group, which holds its key values.
+    int firstRow(int group) {
+        return firstRows[group];
+    }
+
+    long rowCount(int group) {
+        return rowCounts[group];
+    }
+
+    long count(int group, int value) {
+        return counts[value][group];
+    }
+
+    double sum(int group, int value) {
+        return sums[value][group] + compensations[value][group];
+    }
+
+    double min(int group, int value) {
+        return mins[value][group];
+    }
+
+    double max(int group, int value) {
+        return maxs[value][group];
+    }
+
+    // Group number of the key, or -1 if it is not in the table.
+    int find(long[] key, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        for (long entry = slots[slot]; entry != 0; entry = slots[slot]) {
+            int group = (int) entry - 1;
+            if ((int) (entry >>> 32) == hash && sameKey(group, key)) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Group number of the key, adding it as a new group first seen at firstRow if it is not in the table.
+    int group(long[] key, int firstRow) {
+        return group(key, hash(key), firstRow);
+    }
+
+    // The same with the hash of the key already computed.
+    int group(long[] key, int hash, int firstRow) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        for (long entry = slots[slot]; entry != 0; entry = slots[slot]) {
+            int group = (int) entry - 1;
+            if ((int) (entry >>> 32) == hash && sameKey(group, key)) {
+                return group;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == firstRows.length) {
+            grow();
+        }
+        int group = size++;
+        System.arraycopy(key, 0, keys, group * width, width);
+        hashes[group] = hash;
+        firstRows[group] = firstRow;
+        for (int value = 0; value < valueCount; value++) {
+            mins[value][group] = Double.POSITIVE_INFINITY;
+            maxs[value][group] = Double.NEGATIVE_INFINITY;
+        }
+        slots[slot] = (long) hash << 32 | (group + 1);
+        if (size * 4 > slots.length) {
+            rehash();
+        }
+        return group;
+    }
+
+    private boolean sameKey(int group, long[] key) {
+        int offset = group * width;
+        for (int i = 0; i < width; i++) {
+            if (keys[offset + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void addRow(int group) {
+        rowCounts[group]++;
+    }
+
+    void addValue(int group, int value, double x) {
+        counts[value][group]++;
+        addSum(group, value, x);
+        mins[value][group] = Math.min(mins[value][group], x);
+        maxs[value][group] = Math.max(maxs[value][group], x);
+    }
+
+    // Fold in the groups of a table built over later rows, in that table's group order, so groups stay
+    // numbered by first occurrence.
+    void merge(GroupTable other) {
+        long[] key = new long[width];
+        for (int otherGroup = 0; otherGroup < other.size; otherGroup++) {
+            System.arraycopy(other.keys, otherGroup * width, key, 0, width);
+            int group = group(key, other.firstRows[otherGroup]);
+            rowCounts[group] += other.rowCounts[otherGroup];
+            for (int value = 0; value < valueCount; value++) {
+                counts[value][group] += other.counts[value][otherGroup];
+                addSum(group, value, other.sums[value][otherGroup]);
+                compensations[value][group] += other.compensations[value][otherGroup];
+                mins[value][group] = Math.min(mins[value][group], other.mins[value][otherGroup]);
+                maxs[value][group] = Math.max(maxs[value][group], other.maxs[value][otherGroup]);
+            }
+        }
+    }
+
+    private void addSum(int group, int value, double x) {
+        double sum = sums[value][group];
+        double total = sum + x;
+        if (Math.abs(sum) >= Math.abs(x)) {
+            compensations[value][group] += (sum - total) + x;
+        } else {
+            compensations[value][group] += (x - total) + sum;
+        }
+        sums[value][group] = total;
+    }
+
+    private void grow() {
+        int capacity = firstRows.length * 2;
+        keys = Arrays.copyOf(keys, capacity * width);
+        hashes = Arrays.copyOf(hashes, capacity);
+        firstRows = Arrays.copyOf(firstRows, capacity);
+        rowCounts = Arrays.copyOf(rowCounts, capacity);
+        for (int value = 0; value < valueCount; value++) {
+            counts[value] = Arrays.copyOf(counts[value], capacity);
+            sums[value] = Arrays.copyOf(sums[value], capacity);
+            compensations[value] = Arrays.copyOf(compensations[value], capacity);
+            mins[value] = Arrays.copyOf(mins[value], capacity);
+            maxs[value] = Arrays.copyOf(maxs[value], capacity);
+        }
+    }
+
+    private void rehash() {
+        slots = new long[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int group = 0; group < size; group++) {
+            int slot = hashes[group] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = (long) hashes[group] << 32 | (group + 1);
+        }
+    }
+
+    // Mixes every bit of the codes into the low bits the table masks with, since int keys are often sequential.
+    static int hash(long[] key) {
+        long hash = 0;
+        for (long code : key) {
+            hash = (hash + code) * 0x9E3779B97F4A7C15L;
+        }
+        hash ^= hash >>> 32;
+        hash *= 0xD6E8FEB86659FD93L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
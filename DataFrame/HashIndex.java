@@ -0,0 +1,66 @@
+import java.util.HashMap;
+import java.util.Map;
+
+// Secondary index on an int, char or String column: every distinct value mapped to the ascending ids of the
+// rows holding it, so '==' and IN lookups touch only the matching rows. Rows appended with addDataRow are
+// added in place; other changes make the DataFrame rebuild the index on its next use.
+class HashIndex {
+    private final Map<Object, IntList> rows = new HashMap<>();
+    private int version; // DataFrame modification count the index is current for
+
+    HashIndex(Column column, int rowCount, int version) {
+        for (int row = 0; row < rowCount; row++) {
+            add(column, row);
+        }
+        this.version = version;
+    }
+
+    static boolean supports(Column column) {
+        return !column.getType().equals("double");
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    // Add the next appended row and move the index to the new modification count.
+    void append(Column column, int row, int version) {
+        add(column, row);
+        this.version = version;
+    }
+
+    private void add(Column column, int row) {
+        if (column.isNull(row)) {
+            return;
+        }
+        rows.computeIfAbsent(key(column, row), key -> new IntList()).add(row);
+    }
+
+    private static Object key(Column column, int row) {
+        switch (column.getType()) {
+            case "int":
+                return column.getInt(row);
+            case "char":
+                return column.getChar(row);
+            default:
+                return column.getString(row);
+        }
+    }
+
+    // Number of rows holding the literal of an equality comparison.
+    int count(Predicate.Comparison comparison) {
+        IntList list = rows.get(comparison.literal());
+        return list == null ? 0 : list.size();
+    }
+
+    // Copy the rows holding the literal into target at position; returns the position after them.
+    int copyRows(Predicate.Comparison comparison, int[] target, int position) {
+        IntList list = rows.get(comparison.literal());
+        if (list != null) {
+            for (int i = 0; i < list.size(); i++) {
+                target[position++] = list.get(i);
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,365 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Equi-join of two DataFrames on key columns that have the same names and types on both sides. The smaller
+// frame is the build side. Its rows are grouped by key in a GroupTable, with each group's rows listed in
+// ascending order, and the other frame probes the table row by row. Key values are long codes as in GroupBy.
+// String keys are coded in a dictionary shared by both sides, and dictionary-encoded columns are translated
+// once per distinct value rather than once per row. Null keys match nothing. With parallelism above one,
+// large builds are partitioned by key hash so each thread builds the table of its own partition, and the
+// probe runs in parallel chunks.
+class HashJoin {
+    // Builds of at least this many rows are partitioned across threads.
+    private static final int PARTITIONED_BUILD_ROWS = 1 << 20;
+
+    private final DataFrame left;
+    private final DataFrame right;
+    private final int[] leftKeyColumns;
+    private final int[] rightKeyColumns;
+    private final boolean keepUnmatched;
+
+    private HashJoin(DataFrame left, DataFrame right, int[] leftKeyColumns, int[] rightKeyColumns, boolean keepUnmatched) {
+        this.left = left;
+        this.right = right;
+        this.leftKeyColumns = leftKeyColumns;
+        this.rightKeyColumns = rightKeyColumns;
+        this.keepUnmatched = keepUnmatched;
+    }
+
+    // Rows of left and right with equal keys, ordered by left row and then right row: the left columns followed
+    // by the right columns other than the keys. With keepUnmatched, left rows without a match are kept with
+    // nulls on the right.
+    static DataFrame join(DataFrame left, DataFrame right, String[] keyColumnNames, boolean keepUnmatched)
+            throws DataFrameException {
+        if (keyColumnNames.length == 0) {
+            throw new DataFrameException("At least one key column is required.");
+        }
+        int[] leftKeyColumns = new int[keyColumnNames.length];
+        int[] rightKeyColumns = new int[keyColumnNames.length];
+        for (int k = 0; k < keyColumnNames.length; k++) {
+            leftKeyColumns[k] = left.findColumn(keyColumnNames[k]);
+            rightKeyColumns[k] = right.findColumn(keyColumnNames[k]);
+            String leftType = left.getDataTypes().get(leftKeyColumns[k]);
+            String rightType = right.getDataTypes().get(rightKeyColumns[k]);
+            if (!leftType.equals(rightType)) {
+                throw new DataFrameException("Key column '" + keyColumnNames[k] + "' is of type '" + leftType
+                        + "' on the left but '" + rightType + "' on the right.");
+            }
+        }
+        return new HashJoin(left, right, leftKeyColumns, rightKeyColumns, keepUnmatched).run();
+    }
+
+    private DataFrame run() throws DataFrameException {
+        boolean buildLeft = left.getRowCount() < right.getRowCount();
+        DataFrame build = buildLeft ? left : right;
+        DataFrame probe = buildLeft ? right : left;
+        int[] buildKeyColumns = buildLeft ? leftKeyColumns : rightKeyColumns;
+        int[] probeKeyColumns = buildLeft ? rightKeyColumns : leftKeyColumns;
+
+        // The build side adds its Strings to the shared dictionaries; the probe side only looks them up
+        JoinKey[] buildKeys = new JoinKey[buildKeyColumns.length];
+        JoinKey[] probeKeys = new JoinKey[probeKeyColumns.length];
+        for (int k = 0; k < buildKeys.length; k++) {
+            StringDictionary dictionary = new StringDictionary();
+            buildKeys[k] = new JoinKey(build.getColumn(buildKeyColumns[k]), build.getRowCount(), dictionary, true);
+            probeKeys[k] = new JoinKey(probe.getColumn(probeKeyColumns[k]), probe.getRowCount(), dictionary, false);
+        }
+        Partition[] partitions = build(build.getRowCount(), buildKeys);
+        int[][] pairs = probe(probe.getRowCount(), probeKeys, partitions, buildLeft);
+        int[] leftRows = buildLeft ? pairs[1] : pairs[0];
+        int[] rightRows = buildLeft ? pairs[0] : pairs[1];
+        if (buildLeft) {
+            int[][] sorted = sortByLeftRow(leftRows, rightRows);
+            leftRows = sorted[0];
+            rightRows = sorted[1];
+        }
+        return result(leftRows, rightRows);
+    }
+
+    // The build rows of one hash partition, grouped by key: the rows of group g are rows[starts[g], starts[g + 1]).
+    private static class Partition {
+        final GroupTable table;
+        int[] starts;
+        int[] rows;
+
+        Partition(int width) {
+            this.table = new GroupTable(width, 0);
+        }
+    }
+
+    private Partition[] build(int rowCount, JoinKey[] keys) throws DataFrameException {
+        int partitionCount = left.getParallelism() > 1 && rowCount >= PARTITIONED_BUILD_ROWS ? left.getParallelism() : 1;
+        int[][] partitionRows = new int[partitionCount][];
+        if (partitionCount > 1) {
+            // Hash every build row once up front, then scatter the rows into their partitions in ascending order
+            // so each partition only reads the keys of its own rows. Rows with a null key go nowhere.
+            int[] rowPartitions = new int[rowCount];
+            ChunkExecutor.runRows(rowCount, partitionCount, (from, to) -> {
+                long[] key = new long[keys.length];
+                for (int row = from; row < to; row++) {
+                    rowPartitions[row] = readKey(keys, row, key)
+                            ? partitionOf(GroupTable.hash(key), partitionCount) : -1;
+                }
+                return null;
+            });
+            int[] sizes = new int[partitionCount];
+            for (int row = 0; row < rowCount; row++) {
+                if (rowPartitions[row] >= 0) {
+                    sizes[rowPartitions[row]]++;
+                }
+            }
+            for (int partition = 0; partition < partitionCount; partition++) {
+                partitionRows[partition] = new int[sizes[partition]];
+            }
+            int[] next = new int[partitionCount];
+            for (int row = 0; row < rowCount; row++) {
+                int partition = rowPartitions[row];
+                if (partition >= 0) {
+                    partitionRows[partition][next[partition]++] = row;
+                }
+            }
+        }
+        List<Partition> partitions = ChunkExecutor.runChunks(partitionCount, partitionCount, partition -> {
+            int[] rows = partitionRows[partition];
+            int size = rows == null ? rowCount : rows.length;
+            Partition result = new Partition(keys.length);
+            int[] groupOf = new int[size];
+            long[] key = new long[keys.length];
+            for (int i = 0; i < size; i++) {
+                int row = rows == null ? i : rows[i];
+                groupOf[i] = readKey(keys, row, key) ? result.table.group(key, row) : -1;
+            }
+            // Counting sort of the rows by group keeps each group's rows in ascending order
+            int groupCount = result.table.size();
+            result.starts = new int[groupCount + 1];
+            for (int i = 0; i < size; i++) {
+                if (groupOf[i] >= 0) {
+                    result.starts[groupOf[i] + 1]++;
+                }
+            }
+            for (int group = 0; group < groupCount; group++) {
+                result.starts[group + 1] += result.starts[group];
+            }
+            result.rows = new int[result.starts[groupCount]];
+            int[] next = Arrays.copyOf(result.starts, groupCount);
+            for (int i = 0; i < size; i++) {
+                if (groupOf[i] >= 0) {
+                    result.rows[next[groupOf[i]]++] = rows == null ? i : rows[i];
+                }
+            }
+            return result;
+        });
+        return partitions.toArray(new Partition[0]);
+    }
+
+    // Pairs of matching probe and build rows, in probe row order: {probe rows, build rows}. When the probe side
+    // is the left frame and unmatched rows are kept, they appear with build row -1.
+    private int[][] probe(int rowCount, JoinKey[] keys, Partition[] partitions, boolean buildLeft)
+            throws DataFrameException {
+        boolean[] matchedBuildRows = buildLeft && keepUnmatched ? new boolean[left.getRowCount()] : null;
+        boolean keepProbeRows = !buildLeft && keepUnmatched;
+        List<IntList[]> chunks = ChunkExecutor.runRows(rowCount, left.getParallelism(), (from, to) -> {
+            IntList probeRows = new IntList();
+            IntList buildRows = new IntList();
+            long[] key = new long[keys.length];
+            for (int row = from; row < to; row++) {
+                int matches = 0;
+                if (readKey(keys, row, key)) {
+                    int hash = GroupTable.hash(key);
+                    Partition partition = partitions[partitions.length == 1 ? 0 : partitionOf(hash, partitions.length)];
+                    int group = partition.table.find(key, hash);
+                    if (group >= 0) {
+                        for (int i = partition.starts[group]; i < partition.starts[group + 1]; i++) {
+                            probeRows.add(row);
+                            buildRows.add(partition.rows[i]);
+                            if (matchedBuildRows != null) {
+                                matchedBuildRows[partition.rows[i]] = true;
+                            }
+                        }
+                        matches = partition.starts[group + 1] - partition.starts[group];
+                    }
+                }
+                if (matches == 0 && keepProbeRows) {
+                    probeRows.add(row);
+                    buildRows.add(-1);
+                }
+            }
+            return new IntList[] {probeRows, buildRows};
+        });
+        IntList probeRows = new IntList();
+        IntList buildRows = new IntList();
+        for (IntList[] chunk : chunks) {
+            for (int i = 0; i < chunk[0].size(); i++) {
+                probeRows.add(chunk[0].get(i));
+                buildRows.add(chunk[1].get(i));
+            }
+        }
+        if (matchedBuildRows != null) {
+            // Left rows without a match, paired with -1 here and put in place by sortByLeftRow
+            for (int row = 0; row < matchedBuildRows.length; row++) {
+                if (!matchedBuildRows[row]) {
+                    probeRows.add(-1);
+                    buildRows.add(row);
+                }
+            }
+        }
+        return new int[][] {probeRows.toArray(), buildRows.toArray()};
+    }
+
+    private static int partitionOf(int hash, int partitionCount) {
+        return (hash >>> 16) % partitionCount;
+    }
+
+    // Key codes of a row into key, or false if a key is null or a String the build side does not have.
+    private static boolean readKey(JoinKey[] keys, int row, long[] key) {
+        for (int k = 0; k < keys.length; k++) {
+            if (!keys[k].read(row, key, k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Reorder pairs by left row; a stable counting sort, so right rows stay ascending within each left row.
+    private int[][] sortByLeftRow(int[] leftRows, int[] rightRows) {
+        int[] starts = new int[left.getRowCount() + 1];
+        for (int leftRow : leftRows) {
+            starts[leftRow + 1]++;
+        }
+        for (int row = 0; row < left.getRowCount(); row++) {
+            starts[row + 1] += starts[row];
+        }
+        int[] sortedLeft = new int[leftRows.length];
+        int[] sortedRight = new int[rightRows.length];
+        for (int i = 0; i < leftRows.length; i++) {
+            int position = starts[leftRows[i]]++;
+            sortedLeft[position] = leftRows[i];
+            sortedRight[position] = rightRows[i];
+        }
+        return new int[][] {sortedLeft, sortedRight};
+    }
+
+    private DataFrame result(int[] leftRows, int[] rightRows) throws DataFrameException {
+        int count = leftRows.length;
+        List<String> headers = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        List<Column> columns = new ArrayList<>();
+        for (int i = 0; i < left.columnCount(); i++) {
+            headers.add(left.getColumnHeaders().get(i));
+            types.add(left.getDataTypes().get(i));
+            columns.add(left.getColumn(i).select(leftRows, count));
+        }
+        for (int i = 0; i < right.columnCount(); i++) {
+            if (contains(rightKeyColumns, i)) {
+                continue;
+            }
+            String header = right.getColumnHeaders().get(i);
+            while (headers.contains(header)) {
+                header += "_right";
+            }
+            headers.add(header);
+            types.add(right.getDataTypes().get(i));
+            columns.add(selectOrNull(right.getColumn(i), rightRows, count));
+        }
+        DataFrame result = new DataFrame(headers, types, columns, count);
+        result.setParallelism(left.getParallelism());
+        return result;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Copy of the selected rows of a column, with null wherever the row is -1.
+    private static Column selectOrNull(Column column, int[] rows, int count) {
+        int missing = 0;
+        for (int i = 0; i < count; i++) {
+            missing += rows[i] < 0 ? 1 : 0;
+        }
+        if (missing == 0) {
+            return column.select(rows, count);
+        }
+        if (column.size() == 0) {
+            Column nulls = Column.forType(column.getType());
+            for (int i = 0; i < count; i++) {
+                nulls.add(null);
+            }
+            return nulls;
+        }
+        int[] present = new int[count];
+        for (int i = 0; i < count; i++) {
+            present[i] = Math.max(rows[i], 0);
+        }
+        Column selected = column.select(present, count);
+        for (int i = 0; i < count; i++) {
+            if (rows[i] < 0) {
+                selected.set(i, null);
+            }
+        }
+        return selected;
+    }
+
+    // Reads the long code of one key column: int and char values as they are, doubles as their bits and
+    // Strings as codes in the dictionary shared by both sides of the join.
+    private static class JoinKey {
+        private final Column column;
+        private final String type;
+        private DictionaryStringColumn dictionaryColumn;
+        private SelectedColumn view;
+        private int[] translation; // shared code by code of dictionaryColumn, -1 when the value is unknown
+        private int[] rowCodes; // shared code by row for other String columns, -1 for null or unknown
+
+        JoinKey(Column column, int rowCount, StringDictionary dictionary, boolean add) {
+            this.column = column;
+            this.type = column.getType();
+            if (!type.equals("String")) {
+                return;
+            }
+            Column base = SelectedColumn.baseOf(column);
+            if (base instanceof DictionaryStringColumn) {
+                dictionaryColumn = (DictionaryStringColumn) base;
+                view = column instanceof SelectedColumn ? (SelectedColumn) column : null;
+                translation = new int[dictionaryColumn.getDictionarySize()];
+                for (int code = 0; code < translation.length; code++) {
+                    String value = dictionaryColumn.getDictionaryValue(code);
+                    translation[code] = add ? dictionary.code(value) : dictionary.find(value);
+                }
+                return;
+            }
+            rowCodes = new int[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                String value = column.isNull(row) ? null : column.getString(row);
+                rowCodes[row] = value == null ? -1 : add ? dictionary.code(value) : dictionary.find(value);
+            }
+        }
+
+        // Code of a row into key[index], or false if the row has no code to match on.
+        boolean read(int row, long[] key, int index) {
+            if (type.equals("String")) {
+                int code = rowCodes != null ? rowCodes[row] : dictionaryColumn.getCode(view == null ? row : view.baseRow(row));
+                if (code < 0 || (rowCodes == null && (code = translation[code]) < 0)) {
+                    return false;
+                }
+                key[index] = code;
+                return true;
+            }
+            if (column.isNull(row)) {
+                return false;
+            }
+            if (type.equals("int")) {
+                key[index] = column.getInt(row);
+            } else if (type.equals("char")) {
+                key[index] = column.getChar(row);
+            } else {
+                key[index] = Double.doubleToLongBits(column.getDouble(row));
+            }
+            return true;
+        }
+    }
+}
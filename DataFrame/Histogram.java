@@ -0,0 +1,93 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Equal-width histogram over [min, max]. Bins are half-open [start, end) except the last one, which also
+// holds max. The bin of a value is computed arithmetically; labels are only built by toFrequencyTable.
+public class Histogram {
+    private final double min;
+    private final double max;
+    private final double width;
+    private final int[] counts;
+
+    Histogram(double min, double max, int binCount) {
+        this.min = min;
+        this.max = max;
+        this.width = (max - min) / binCount;
+        this.counts = new int[binCount];
+    }
+
+    // Bin index of a value, or -1 if it lies outside [min, max].
+    int binOf(double value) {
+        if (!(value >= min && value <= max)) {
+            return -1;
+        }
+        if (width == 0) {
+            return 0;
+        }
+        int bin = Math.min((int) ((value - min) / width), counts.length - 1);
+        // Correct for rounding so a value is never placed on the wrong side of an edge
+        if (bin > 0 && value < getEdge(bin)) {
+            bin--;
+        } else if (bin < counts.length - 1 && value >= getEdge(bin + 1)) {
+            bin++;
+        }
+        return bin;
+    }
+
+    void add(double value) {
+        int bin = binOf(value);
+        if (bin >= 0) {
+            counts[bin]++;
+        }
+    }
+
+    // Count a value already known to fall in the bin.
+    void addToBin(int bin) {
+        counts[bin]++;
+    }
+
+    double getWidth() {
+        return width;
+    }
+
+    void merge(Histogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+    }
+
+    public int getBinCount() {
+        return counts.length;
+    }
+
+    // Lower edge of a bin; getEdge(getBinCount()) is the upper edge of the last bin.
+    public double getEdge(int index) {
+        return index == counts.length ? max : min + index * width;
+    }
+
+    public int getCount(int bin) {
+        return counts[bin];
+    }
+
+    public int[] getCounts() {
+        return Arrays.copyOf(counts, counts.length);
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    // Label each bin as "[start - end)" with two decimals; bins whose labels coincide are added together.
+    public Map<String, Integer> toFrequencyTable() {
+        Map<String, Integer> frequencyTable = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            frequencyTable.merge(String.format("[%.2f - %.2f)", getEdge(i), getEdge(i + 1)), counts[i], Integer::sum);
+        }
+        return frequencyTable;
+    }
+}
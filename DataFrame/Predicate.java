@@ -0,0 +1,278 @@
+import java.util.List;
+
+// A row condition compiled against the columns of one DataFrame (see ConditionParser).
+interface Predicate {
+    boolean test(int row);
+
+    // Set bit (row - from) in words for every matching row of [from, to), one bitmap container of rows.
+    default void evaluate(int from, int to, long[] words) {
+        for (int row = from; row < to; row++) {
+            if (test(row)) {
+                int bit = row - from;
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+
+    // Add the terms of a chain of ANDs (or the predicate itself if it is no AND) to the list.
+    static void collectConjuncts(Predicate predicate, List<Predicate> terms) {
+        if (predicate instanceof And) {
+            collectConjuncts(((And) predicate).left, terms);
+            collectConjuncts(((And) predicate).right, terms);
+        } else {
+            terms.add(predicate);
+        }
+    }
+
+    enum Operator {
+        LESS("<"), GREATER(">"), EQUAL("=="), NOT_EQUAL("!=");
+
+        final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        // Turn the result of a compare call into the outcome of this operator.
+        boolean accept(int comparison) {
+            switch (this) {
+                case LESS:
+                    return comparison < 0;
+                case GREATER:
+                    return comparison > 0;
+                case EQUAL:
+                    return comparison == 0;
+                default:
+                    return comparison != 0;
+            }
+        }
+
+        static Operator fromSymbol(String symbol) {
+            for (Operator operator : values()) {
+                if (operator.symbol.equals(symbol)) {
+                    return operator;
+                }
+            }
+            return null;
+        }
+    }
+
+    class And implements Predicate {
+        final Predicate left;
+        final Predicate right;
+
+        And(Predicate left, Predicate right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(int row) {
+            return left.test(row) && right.test(row);
+        }
+    }
+
+    class Or implements Predicate {
+        final Predicate left;
+        final Predicate right;
+
+        Or(Predicate left, Predicate right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(int row) {
+            return left.test(row) || right.test(row);
+        }
+    }
+
+    class Not implements Predicate {
+        final Predicate operand;
+
+        Not(Predicate operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public boolean test(int row) {
+            return !operand.test(row);
+        }
+    }
+
+    // Leaf condition 'columnName operator value' with the column resolved and the value parsed once.
+    abstract class Comparison implements Predicate {
+        final int columnIndex;
+        final Column column;
+        final Operator operator;
+        String key; // identifies the condition among those on the same DataFrame, for caching its result
+
+        Comparison(int columnIndex, Column column, Operator operator) {
+            this.columnIndex = columnIndex;
+            this.column = column;
+            this.operator = operator;
+        }
+
+        @Override
+        public boolean test(int row) {
+            return !column.isNull(row) && operator.accept(compare(row));
+        }
+
+        abstract int compare(int row);
+
+        // The literal as the key a HashIndex uses for the column, or null if no value of the column can equal it.
+        abstract Object literal();
+    }
+
+    // Leaf condition 'columnName IN (a, b, ...)', a row matches when it equals one of the values.
+    class In implements Predicate {
+        final int columnIndex;
+        final Comparison[] values; // one EQUAL comparison per listed value
+        String key;
+
+        In(int columnIndex, Comparison[] values) {
+            this.columnIndex = columnIndex;
+            this.values = values;
+        }
+
+        @Override
+        public boolean test(int row) {
+            for (Comparison value : values) {
+                if (value.test(row)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    class DoubleComparison extends Comparison {
+        final double value;
+
+        DoubleComparison(int columnIndex, Column column, Operator operator, double value) {
+            super(columnIndex, column, operator);
+            this.value = value;
+        }
+
+        @Override
+        int compare(int row) {
+            return Double.compare(column.getDouble(row), value);
+        }
+
+        // Same as the default, through the column kernels for array-backed columns and otherwise with the
+        // comparison inlined into one loop over the column.
+        @Override
+        public void evaluate(int from, int to, long[] words) {
+            if (ColumnKernels.KERNELS != null && column instanceof DoubleColumn) {
+                ColumnKernels.KERNELS.compare((DoubleColumn) column, from, to, operator, value, words);
+                return;
+            }
+            for (int row = from; row < to; row++) {
+                if (!column.isNull(row) && operator.accept(Double.compare(column.getDouble(row), value))) {
+                    int bit = row - from;
+                    words[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+
+        @Override
+        Object literal() {
+            return value;
+        }
+    }
+
+    class IntComparison extends Comparison {
+        final double value; // kept as double so 'count > 2.5' works on int columns
+
+        IntComparison(int columnIndex, Column column, Operator operator, double value) {
+            super(columnIndex, column, operator);
+            this.value = value;
+        }
+
+        @Override
+        int compare(int row) {
+            return Double.compare(column.getInt(row), value);
+        }
+
+        // Same as the default, with the comparison inlined into one loop over the column.
+        @Override
+        public void evaluate(int from, int to, long[] words) {
+            for (int row = from; row < to; row++) {
+                if (!column.isNull(row) && operator.accept(Double.compare(column.getInt(row), value))) {
+                    int bit = row - from;
+                    words[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+
+        @Override
+        Object literal() {
+            return value == (int) value ? (Object) (int) value : null;
+        }
+    }
+
+    class CharComparison extends Comparison {
+        final char value;
+
+        CharComparison(int columnIndex, Column column, Operator operator, char value) {
+            super(columnIndex, column, operator);
+            this.value = value;
+        }
+
+        @Override
+        int compare(int row) {
+            return Character.compare(column.getChar(row), value);
+        }
+
+        @Override
+        Object literal() {
+            return value;
+        }
+    }
+
+    class StringComparison extends Comparison {
+        final String value;
+
+        StringComparison(int columnIndex, Column column, Operator operator, String value) {
+            super(columnIndex, column, operator);
+            this.value = value;
+        }
+
+        @Override
+        int compare(int row) {
+            return column.getString(row).compareTo(value);
+        }
+
+        @Override
+        Object literal() {
+            return value;
+        }
+    }
+
+    // String comparison on a dictionary-encoded column, or a view of one: '==' and '!=' compare codes.
+    class DictionaryComparison extends StringComparison {
+        final DictionaryStringColumn dictionaryColumn;
+        final SelectedColumn view; // null when the column is the dictionary column itself
+        final int code; // -1 when the value is not in the dictionary, so no cell equals it
+
+        DictionaryComparison(int columnIndex, Column column, Operator operator, String value) {
+            super(columnIndex, column, operator, value);
+            this.dictionaryColumn = (DictionaryStringColumn) SelectedColumn.baseOf(column);
+            this.view = column instanceof SelectedColumn ? (SelectedColumn) column : null;
+            this.code = dictionaryColumn.findCode(value);
+        }
+
+        @Override
+        public boolean test(int row) {
+            int rowCode = dictionaryColumn.getCode(view == null ? row : view.baseRow(row));
+            switch (operator) {
+                case EQUAL:
+                    return rowCode >= 0 && rowCode == code;
+                case NOT_EQUAL:
+                    return rowCode >= 0 && rowCode != code;
+                default:
+                    return super.test(row);
+            }
+        }
+    }
+}
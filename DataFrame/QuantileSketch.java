@@ -0,0 +1,134 @@
+import java.util.Arrays;
+
+// KLL quantile sketch (Karnin, Lang and Liberty): approximate quantiles of a stream of doubles in memory that
+// grows only with the logarithm of the count. Values enter level 0; when the sketch is over capacity, the lowest
+// full level is sorted and every other value (starting at a coin flip) moves up a level, where each value stands
+// for twice as many. Higher levels hold more values, shrinking by a factor 2/3 per level down. Sketches of
+// separate chunks merge level by level. The coin is a fixed-seed generator, so a given sequence of values and
+// merges always gives the same sketch. With K = 200 a rank is typically off by well under 1% of the count.
+class QuantileSketch {
+    private static final int K = 200;
+    private static final double DECAY = 2.0 / 3.0;
+
+    private double[][] levels = {new double[K]};
+    private int[] sizes = new int[1];
+    private int[] capacities = {K};
+    private int kept; // values over all levels
+    private int capacity = K; // sum of capacities
+    private long count;
+    private long coin = 0x9E3779B97F4A7C15L; // xorshift state
+
+    void accept(double value) {
+        append(0, value);
+        count++;
+        if (kept >= capacity) {
+            compress();
+        }
+    }
+
+    // Fold in the values of another sketch, such as one of a later chunk.
+    void merge(QuantileSketch other) {
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        compress();
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    // Value whose rank is about q * count, for q in [0, 1]: the smallest kept value whose cumulative weight
+    // reaches q times the total. NaN for an empty sketch.
+    double quantile(double q) {
+        int total = kept;
+        if (total == 0) {
+            return Double.NaN;
+        }
+        // Kept values in order, each weighing 2^level
+        double[] values = new double[total];
+        long[] weights = new long[total];
+        int i = 0;
+        for (int level = 0; level < levels.length; level++) {
+            for (int j = 0; j < sizes[level]; j++) {
+                values[i] = levels[level][j];
+                weights[i++] = 1L << level;
+            }
+        }
+        Integer[] order = new Integer[total];
+        Arrays.setAll(order, index -> index);
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        long totalWeight = 0;
+        for (long weight : weights) {
+            totalWeight += weight;
+        }
+        double target = q * totalWeight;
+        long cumulative = 0;
+        for (int index : order) {
+            cumulative += weights[index];
+            if (cumulative >= target) {
+                return values[index];
+            }
+        }
+        return values[order[total - 1]];
+    }
+
+    // Compact the lowest full level until the sketch is within its total capacity.
+    private void compress() {
+        while (kept >= capacity) {
+            for (int level = 0; level < levels.length; level++) {
+                if (sizes[level] >= capacities[level]) {
+                    compact(level);
+                    break;
+                }
+            }
+        }
+    }
+
+    // Sort a level and move every other value up a level. With an odd size the smallest value stays behind.
+    private void compact(int level) {
+        if (level + 1 == levels.length) {
+            addLevel();
+        }
+        double[] values = levels[level];
+        int size = sizes[level];
+        Arrays.sort(values, 0, size);
+        int start = size % 2;
+        coin ^= coin << 13;
+        coin ^= coin >>> 7;
+        coin ^= coin << 17;
+        for (int i = start + (int) (coin & 1); i < size; i += 2) {
+            append(level + 1, values[i]);
+        }
+        kept -= size - start;
+        sizes[level] = start;
+    }
+
+    private void append(int level, double value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+        kept++;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, levels.length + 1);
+        levels[levels.length - 1] = new double[K];
+        sizes = Arrays.copyOf(sizes, sizes.length + 1);
+        // A level's capacity shrinks with the number of levels above it
+        capacities = new int[levels.length];
+        capacity = 0;
+        for (int level = 0; level < levels.length; level++) {
+            int depth = levels.length - 1 - level;
+            capacities[level] = Math.max(2, (int) Math.ceil(K * Math.pow(DECAY, depth)));
+            capacity += capacities[level];
+        }
+    }
+}
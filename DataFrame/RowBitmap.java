@@ -0,0 +1,245 @@
+import java.util.Arrays;
+
+// Compressed set of row ids in [0, rowCount), split like a Roaring bitmap into containers of 2^16 rows.
+// A container is null when empty, a sorted char[] of low bits while it holds at most ARRAY_LIMIT rows, and
+// a long[] of 1024 words otherwise. Instances are immutable; and, or and andNot return new bitmaps.
+class RowBitmap {
+    static final int CONTAINER_ROWS = 1 << 16;
+    static final int WORDS = CONTAINER_ROWS / 64;
+    private static final int ARRAY_LIMIT = 4096;
+
+    private final int rowCount;
+    private final Object[] containers;
+
+    RowBitmap(int rowCount, Object[] containers) {
+        this.rowCount = rowCount;
+        this.containers = containers;
+    }
+
+    static int containerCount(int rowCount) {
+        return (rowCount + CONTAINER_ROWS - 1) / CONTAINER_ROWS;
+    }
+
+    static RowBitmap empty(int rowCount) {
+        return new RowBitmap(rowCount, new Object[containerCount(rowCount)]);
+    }
+
+    // Every row in [0, rowCount).
+    static RowBitmap all(int rowCount) {
+        Object[] containers = new Object[containerCount(rowCount)];
+        for (int i = 0; i < containers.length; i++) {
+            long[] words = new long[WORDS];
+            int rows = Math.min(CONTAINER_ROWS, rowCount - i * CONTAINER_ROWS);
+            Arrays.fill(words, 0, rows / 64, -1L);
+            if (rows % 64 != 0) {
+                words[rows / 64] = (1L << rows) - 1;
+            }
+            containers[i] = words;
+        }
+        return new RowBitmap(rowCount, containers);
+    }
+
+    // Bitmap of the row ids rows[from, to), given in any order.
+    static RowBitmap of(int rowCount, int[] rows, int from, int to) {
+        long[][] words = new long[containerCount(rowCount)][];
+        for (int i = from; i < to; i++) {
+            int row = rows[i];
+            int container = row >>> 16;
+            if (words[container] == null) {
+                words[container] = new long[WORDS];
+            }
+            words[container][(row & 0xFFFF) >>> 6] |= 1L << row;
+        }
+        Object[] containers = new Object[words.length];
+        for (int i = 0; i < words.length; i++) {
+            containers[i] = words[i] == null ? null : container(words[i]);
+        }
+        return new RowBitmap(rowCount, containers);
+    }
+
+    // The most compact container for a word array covering one block of rows.
+    static Object container(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality == 0) {
+            return null;
+        }
+        if (cardinality > ARRAY_LIMIT) {
+            return words;
+        }
+        char[] values = new char[cardinality];
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                values[count++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+            }
+        }
+        return values;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (Object container : containers) {
+            if (container instanceof char[]) {
+                cardinality += ((char[]) container).length;
+            } else if (container != null) {
+                for (long word : (long[]) container) {
+                    cardinality += Long.bitCount(word);
+                }
+            }
+        }
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        for (Object container : containers) {
+            if (container != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Row ids in ascending order.
+    int[] toArray() {
+        int[] rows = new int[cardinality()];
+        int count = 0;
+        for (int i = 0; i < containers.length; i++) {
+            int base = i * CONTAINER_ROWS;
+            if (containers[i] instanceof char[]) {
+                for (char low : (char[]) containers[i]) {
+                    rows[count++] = base + low;
+                }
+            } else if (containers[i] != null) {
+                long[] words = (long[]) containers[i];
+                for (int w = 0; w < words.length; w++) {
+                    for (long word = words[w]; word != 0; word &= word - 1) {
+                        rows[count++] = base + w * 64 + Long.numberOfTrailingZeros(word);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    RowBitmap and(RowBitmap other) {
+        Object[] result = new Object[containers.length];
+        for (int i = 0; i < result.length; i++) {
+            Object a = containers[i];
+            Object b = other.containers[i];
+            if (a == null || b == null) {
+                continue;
+            }
+            if (a instanceof char[] && b instanceof char[]) {
+                result[i] = intersect((char[]) a, (char[]) b);
+            } else if (a instanceof char[] || b instanceof char[]) {
+                result[i] = filter(a instanceof char[] ? (char[]) a : (char[]) b, a instanceof long[] ? (long[]) a : (long[]) b, true);
+            } else {
+                long[] words = new long[WORDS];
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] = ((long[]) a)[w] & ((long[]) b)[w];
+                }
+                result[i] = container(words);
+            }
+        }
+        return new RowBitmap(rowCount, result);
+    }
+
+    RowBitmap or(RowBitmap other) {
+        Object[] result = new Object[containers.length];
+        for (int i = 0; i < result.length; i++) {
+            Object a = containers[i];
+            Object b = other.containers[i];
+            if (a == null || b == null) {
+                result[i] = a == null ? b : a;
+            } else {
+                long[] words = words(a);
+                orInto(words, b);
+                result[i] = container(words);
+            }
+        }
+        return new RowBitmap(rowCount, result);
+    }
+
+    // Rows in this bitmap but not in the other.
+    RowBitmap andNot(RowBitmap other) {
+        Object[] result = new Object[containers.length];
+        for (int i = 0; i < result.length; i++) {
+            Object a = containers[i];
+            Object b = other.containers[i];
+            if (a == null || b == null) {
+                result[i] = a;
+            } else if (a instanceof char[] && b instanceof long[]) {
+                result[i] = filter((char[]) a, (long[]) b, false);
+            } else {
+                long[] words = words(a);
+                long[] remove = words(b);
+                for (int w = 0; w < WORDS; w++) {
+                    words[w] &= ~remove[w];
+                }
+                result[i] = container(words);
+            }
+        }
+        return new RowBitmap(rowCount, result);
+    }
+
+    // A fresh word array with the rows of a container.
+    private static long[] words(Object container) {
+        if (container instanceof long[]) {
+            return ((long[]) container).clone();
+        }
+        long[] words = new long[WORDS];
+        orInto(words, container);
+        return words;
+    }
+
+    private static void orInto(long[] words, Object container) {
+        if (container instanceof char[]) {
+            for (char low : (char[]) container) {
+                words[low >>> 6] |= 1L << low;
+            }
+        } else {
+            long[] other = (long[]) container;
+            for (int w = 0; w < WORDS; w++) {
+                words[w] |= other[w];
+            }
+        }
+    }
+
+    private static char[] intersect(char[] a, char[] b) {
+        char[] values = new char[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                values[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return count == 0 ? null : Arrays.copyOf(values, count);
+    }
+
+    // The values of an array container that are (or are not) set in a word container.
+    private static char[] filter(char[] values, long[] words, boolean keepSet) {
+        char[] kept = new char[values.length];
+        int count = 0;
+        for (char low : values) {
+            if (((words[low >>> 6] & (1L << low)) != 0) == keepSet) {
+                kept[count++] = low;
+            }
+        }
+        return count == 0 ? null : Arrays.copyOf(kept, count);
+    }
+}
@@ -0,0 +1,378 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Orders row ids by the values of one column without boxing. int and char values are packed with the row id
+// into a long and sorted as primitives; doubles are mapped to longs that sort like Double.compare and Strings
+// use String.compareTo (the order of StringElement.compareTo), both through a stable merge sort on row ids.
+// Equal values keep ascending row order, and null rows are left out.
+// sortedPermutation orders all rows by several columns for DataFrame.sortBy.
+class RowSorter {
+    // Bits of the sort key a radix pass distributes on.
+    private static final int RADIX_BITS = 8;
+    // Rows insertion-sorted into runs before the merge rounds of mergeSortByKeys.
+    private static final int INSERTION_RUN = 32;
+
+    interface RowComparator {
+        int compare(int rowA, int rowB);
+    }
+
+    // Non-null rows of [0, rowCount) in ascending value order.
+    static int[] sortedRows(Column column, int rowCount) {
+        int count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!column.isNull(row)) {
+                count++;
+            }
+        }
+        switch (column.getType()) {
+            case "int":
+            case "char":
+                return sortPacked(column, rowCount, count);
+            case "double":
+                long[] keys = new long[rowCount];
+                for (int row = 0; row < rowCount; row++) {
+                    if (!column.isNull(row)) {
+                        keys[row] = sortableBits(column.getDouble(row));
+                    }
+                }
+                return mergeSort(nonNullRows(column, rowCount, count), (a, b) -> Long.compare(keys[a], keys[b]));
+            default:
+                return mergeSort(nonNullRows(column, rowCount, count),
+                        (a, b) -> column.getString(a).compareTo(column.getString(b)));
+        }
+    }
+
+    // Flip the bits of negative doubles so that comparing the longs gives the order of Double.compare.
+    static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static int[] sortPacked(Column column, int rowCount, int count) {
+        boolean isChar = column.getType().equals("char");
+        long[] packed = new long[count];
+        int i = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!column.isNull(row)) {
+                long key = isChar ? column.getChar(row) : column.getInt(row);
+                packed[i++] = (key << 32) | row; // row ids are non-negative, so ties sort by row
+            }
+        }
+        Arrays.sort(packed);
+        int[] rows = new int[count];
+        for (i = 0; i < count; i++) {
+            rows[i] = (int) packed[i];
+        }
+        return rows;
+    }
+
+    private static int[] nonNullRows(Column column, int rowCount, int count) {
+        int[] rows = new int[count];
+        int i = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (!column.isNull(row)) {
+                rows[i++] = row;
+            }
+        }
+        return rows;
+    }
+
+    // Permutation of [0, rowCount) ordering rows by several columns, each ascending or descending, with nulls
+    // last in every column and ties in ascending row order. The columns are applied from the last to the
+    // first with a stable sort, so each column only reorders rows that the earlier ones tie. int, char and
+    // dictionary-encoded String columns use a radix sort on int keys, double columns a merge sort on long keys
+    // and other String columns a merge sort with a comparator. Each splits its work into up to parallelism
+    // parts handled by separate threads.
+    static int[] sortedPermutation(Column[] columns, boolean[] ascending, int rowCount, int parallelism)
+            throws DataFrameException {
+        int[] rows = new int[rowCount];
+        Arrays.setAll(rows, row -> row);
+        int parts = Math.max(1, Math.min(parallelism, rowCount / ChunkExecutor.CHUNK_SIZE));
+        for (int k = columns.length - 1; k >= 0; k--) {
+            rows = sortStable(rows, columns[k], ascending[k], rowCount, parts);
+        }
+        return rows;
+    }
+
+    // Rows reordered by one column, keeping the current order of ties and of the null rows, which go last.
+    private static int[] sortStable(int[] rows, Column column, boolean ascending, int rowCount, int parts)
+            throws DataFrameException {
+        int nullCount = 0;
+        for (int row : rows) {
+            if (column.isNull(row)) {
+                nullCount++;
+            }
+        }
+        int[] present = new int[rows.length - nullCount];
+        int[] result = new int[rows.length];
+        int presentCount = 0;
+        int nullPosition = present.length;
+        for (int row : rows) {
+            if (column.isNull(row)) {
+                result[nullPosition++] = row;
+            } else {
+                present[presentCount++] = row;
+            }
+        }
+        int[] sorted;
+        if (column.getType().equals("double")) {
+            long[] keys = new long[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                long bits = column.isNull(row) ? 0 : sortableBits(column.getDouble(row));
+                keys[row] = ascending ? bits : ~bits;
+            }
+            sorted = mergeSortByKeys(present, keys, parts);
+        } else {
+            int[] keys = radixKeys(column, ascending, rowCount);
+            sorted = keys != null ? radixSort(present, keys, parts)
+                    : parallelMergeSort(present, comparator(column, ascending, rowCount), parts);
+        }
+        System.arraycopy(sorted, 0, result, 0, sorted.length);
+        return result;
+    }
+
+    // Keys by row whose unsigned order is the order of the column, or null if the column has none. Strings of
+    // a dictionary-encoded column are ranked once per distinct value. Descending keys are complemented.
+    private static int[] radixKeys(Column column, boolean ascending, int rowCount) {
+        Column base = SelectedColumn.baseOf(column);
+        int[] keys;
+        if (column.getType().equals("int")) {
+            keys = new int[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                keys[row] = column.isNull(row) ? 0 : column.getInt(row) ^ Integer.MIN_VALUE;
+            }
+        } else if (column.getType().equals("char")) {
+            keys = new int[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                keys[row] = column.isNull(row) ? 0 : column.getChar(row);
+            }
+        } else if (base instanceof DictionaryStringColumn) {
+            DictionaryStringColumn dictionaryColumn = (DictionaryStringColumn) base;
+            SelectedColumn view = column instanceof SelectedColumn ? (SelectedColumn) column : null;
+            Integer[] codes = new Integer[dictionaryColumn.getDictionarySize()];
+            Arrays.setAll(codes, code -> code);
+            Arrays.sort(codes, (a, b) -> dictionaryColumn.getDictionaryValue(a).compareTo(dictionaryColumn.getDictionaryValue(b)));
+            int[] ranks = new int[codes.length];
+            for (int rank = 0; rank < codes.length; rank++) {
+                ranks[codes[rank]] = rank;
+            }
+            keys = new int[rowCount];
+            for (int row = 0; row < rowCount; row++) {
+                int code = dictionaryColumn.getCode(view == null ? row : view.baseRow(row));
+                keys[row] = code < 0 ? 0 : ranks[code];
+            }
+        } else {
+            return null;
+        }
+        if (!ascending) {
+            for (int row = 0; row < rowCount; row++) {
+                keys[row] = ~keys[row];
+            }
+        }
+        return keys;
+    }
+
+    // Comparator for the merge sort of String columns, over values read once into an array.
+    private static RowComparator comparator(Column column, boolean ascending, int rowCount) {
+        String[] values = new String[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            values[row] = column.isNull(row) ? null : column.getString(row);
+        }
+        RowComparator comparator = (a, b) -> values[a].compareTo(values[b]);
+        return ascending ? comparator : (a, b) -> comparator.compare(b, a);
+    }
+
+    // Stable least-significant-digit radix sort of rows by unsigned keys. Each pass counts the digits of every
+    // part in parallel, then each part moves its rows to the offsets its counts give. The keys move along with
+    // the rows, so passes read them in order, and passes where every row has the same digit are skipped.
+    private static int[] radixSort(int[] rows, int[] keysByRow, int parts) throws DataFrameException {
+        int count = rows.length;
+        int buckets = 1 << RADIX_BITS;
+        int[] sourceRows = rows;
+        int[] sourceKeys = new int[count];
+        for (int i = 0; i < count; i++) {
+            sourceKeys[i] = keysByRow[rows[i]];
+        }
+        int[] targetRows = new int[count];
+        int[] targetKeys = new int[count];
+        for (int shift = 0; shift < Integer.SIZE; shift += RADIX_BITS) {
+            int digitShift = shift;
+            int[] fromRows = sourceRows;
+            int[] fromKeys = sourceKeys;
+            int[] toRows = targetRows;
+            int[] toKeys = targetKeys;
+            List<int[]> counts = ChunkExecutor.runChunks(parts, parts, part -> {
+                int[] digitCounts = new int[buckets];
+                for (int i = partStart(count, part, parts); i < partStart(count, part + 1, parts); i++) {
+                    digitCounts[(fromKeys[i] >>> digitShift) & (buckets - 1)]++;
+                }
+                return digitCounts;
+            });
+            int[][] offsets = new int[parts][buckets];
+            int offset = 0;
+            boolean singleDigit = false;
+            for (int digit = 0; digit < buckets; digit++) {
+                int digitStart = offset;
+                for (int part = 0; part < parts; part++) {
+                    offsets[part][digit] = offset;
+                    offset += counts.get(part)[digit];
+                }
+                singleDigit |= offset - digitStart == count;
+            }
+            if (singleDigit) {
+                continue;
+            }
+            ChunkExecutor.runChunks(parts, parts, part -> {
+                int[] next = offsets[part];
+                for (int i = partStart(count, part, parts); i < partStart(count, part + 1, parts); i++) {
+                    int position = next[(fromKeys[i] >>> digitShift) & (buckets - 1)]++;
+                    toRows[position] = fromRows[i];
+                    toKeys[position] = fromKeys[i];
+                }
+                return null;
+            });
+            sourceRows = toRows;
+            sourceKeys = toKeys;
+            targetRows = fromRows;
+            targetKeys = fromKeys;
+        }
+        return sourceRows;
+    }
+
+    // Merge sort of each part on its own thread, followed by rounds of merging neighbouring sorted runs, the
+    // merges of a round again in parallel.
+    private static int[] parallelMergeSort(int[] rows, RowComparator comparator, int parts) throws DataFrameException {
+        int count = rows.length;
+        ChunkExecutor.runChunks(parts, parts, part -> {
+            int from = partStart(count, part, parts);
+            int to = partStart(count, part + 1, parts);
+            int[] sorted = mergeSort(Arrays.copyOfRange(rows, from, to), comparator);
+            System.arraycopy(sorted, 0, rows, from, to - from);
+            return null;
+        });
+        int[] source = rows;
+        int[] target = new int[count];
+        for (int width = 1; width < parts; width *= 2) {
+            int runParts = width;
+            int[] from = source;
+            int[] to = target;
+            ChunkExecutor.runChunks((parts + 2 * width - 1) / (2 * width), parts, pair -> {
+                int first = pair * 2 * runParts;
+                merge(from, to, partStart(count, first, parts), partStart(count, Math.min(first + runParts, parts), parts),
+                        partStart(count, Math.min(first + 2 * runParts, parts), parts), comparator);
+                return null;
+            });
+            source = to;
+            target = from;
+        }
+        return source;
+    }
+
+    // Stable merge sort of rows by long keys, which move along with the rows so that merges compare primitives
+    // read in order. Runs of INSERTION_RUN rows are insertion-sorted first, and the runs and the merges of every
+    // round are split between the parts.
+    private static int[] mergeSortByKeys(int[] rows, long[] keysByRow, int parts) throws DataFrameException {
+        int count = rows.length;
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = keysByRow[rows[i]];
+        }
+        int runs = (count + INSERTION_RUN - 1) / INSERTION_RUN;
+        ChunkExecutor.runChunks(parts, parts, part -> {
+            for (int run = partStart(runs, part, parts); run < partStart(runs, part + 1, parts); run++) {
+                insertionSort(rows, keys, run * INSERTION_RUN, Math.min(count, (run + 1) * INSERTION_RUN));
+            }
+            return null;
+        });
+        int[] sourceRows = rows;
+        long[] sourceKeys = keys;
+        int[] targetRows = new int[count];
+        long[] targetKeys = new long[count];
+        for (int width = INSERTION_RUN; width < count; width *= 2) {
+            int runWidth = width;
+            int merges = (count + 2 * width - 1) / (2 * width);
+            int tasks = Math.min(parts, merges);
+            int[] fromRows = sourceRows;
+            long[] fromKeys = sourceKeys;
+            int[] toRows = targetRows;
+            long[] toKeys = targetKeys;
+            ChunkExecutor.runChunks(tasks, parts, task -> {
+                for (int merge = partStart(merges, task, tasks); merge < partStart(merges, task + 1, tasks); merge++) {
+                    int from = merge * 2 * runWidth;
+                    mergeByKeys(fromRows, fromKeys, toRows, toKeys, from, Math.min(from + runWidth, count),
+                            Math.min(from + 2 * runWidth, count));
+                }
+                return null;
+            });
+            sourceRows = toRows;
+            sourceKeys = toKeys;
+            targetRows = fromRows;
+            targetKeys = fromKeys;
+        }
+        return sourceRows;
+    }
+
+    private static void insertionSort(int[] rows, long[] keys, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int row = rows[i];
+            long key = keys[i];
+            int j = i - 1;
+            while (j >= from && keys[j] > key) {
+                rows[j + 1] = rows[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            rows[j + 1] = row;
+            keys[j + 1] = key;
+        }
+    }
+
+    private static void mergeByKeys(int[] rows, long[] keys, int[] targetRows, long[] targetKeys, int from, int middle,
+            int to) {
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && keys[left] <= keys[right])) {
+                targetRows[i] = rows[left];
+                targetKeys[i] = keys[left++];
+            } else {
+                targetRows[i] = rows[right];
+                targetKeys[i] = keys[right++];
+            }
+        }
+    }
+
+    // First of the rows that part handles when count rows are split into parts contiguous parts.
+    private static int partStart(int count, int part, int parts) {
+        return (int) ((long) count * part / parts);
+    }
+
+    // Stable bottom-up merge sort of row ids.
+    static int[] mergeSort(int[] rows, RowComparator comparator) {
+        int[] source = rows;
+        int[] target = new int[rows.length];
+        for (int width = 1; width < rows.length; width *= 2) {
+            for (int from = 0; from < rows.length; from += 2 * width) {
+                int middle = Math.min(from + width, rows.length);
+                int to = Math.min(from + 2 * width, rows.length);
+                merge(source, target, from, middle, to, comparator);
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        return source;
+    }
+
+    private static void merge(int[] source, int[] target, int from, int middle, int to, RowComparator comparator) {
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparator.compare(source[left], source[right]) <= 0)) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+// Secondary index on one column: the non-null row ids in ascending value order. A comparison leaf compares a
+// row's value with its literal, and that result only grows along the index, so the rows matching '<', '=='
+// or '>' form one contiguous run that two binary searches find.
+class SortedIndex {
+    private final int[] rows;
+    private final int version; // DataFrame modification count the index was built at
+
+    SortedIndex(Column column, int rowCount, int version) {
+        this.rows = RowSorter.sortedRows(column, rowCount);
+        this.version = version;
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    // Positions [from, to) in the index of the rows matching the comparison; NOT_EQUAL is not a single run.
+    int[] range(Predicate.Comparison comparison) {
+        int lower = search(comparison, false);
+        switch (comparison.operator) {
+            case LESS:
+                return new int[] {0, lower};
+            case EQUAL:
+                return new int[] {lower, search(comparison, true)};
+            case GREATER:
+                return new int[] {search(comparison, true), rows.length};
+            default:
+                return null;
+        }
+    }
+
+    // First position whose value compares above the literal (or at least equal to it when not inclusive).
+    private int search(Predicate.Comparison comparison, boolean pastEqual) {
+        int low = 0;
+        int high = rows.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int cmp = comparison.compare(rows[middle]);
+            if (cmp < 0 || (pastEqual && cmp == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Copy the row ids at positions [from, to) into target at position; returns the position after them.
+    int copyRows(int from, int to, int[] target, int position) {
+        System.arraycopy(rows, from, target, position, to - from);
+        return position + to - from;
+    }
+}
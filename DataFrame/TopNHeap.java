@@ -0,0 +1,196 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Bounded max-heap of the best rows seen so far for DataFrame.topN, ordered like RowSorter: by key, then by row.
+// The root is the worst row kept, so a new row costs one comparison unless it beats the root, and O(log n)
+// when it does. int, char, double and dictionary-encoded String values are primitive long keys; other String
+// values are compared with String.compareTo.
+class TopNHeap {
+    private final int[] rows;
+    private final long[] keys;
+    private final String[] values; // instead of keys for plain String columns
+    private final boolean descending; // for values; long keys are complemented instead
+    private int size;
+
+    private TopNHeap(int capacity, boolean strings, boolean descending) {
+        this.rows = new int[capacity];
+        this.keys = strings ? null : new long[capacity];
+        this.values = strings ? new String[capacity] : null;
+        this.descending = descending;
+    }
+
+    // The first n rows of RowSorter's order for one column among the given rows (all rows if null), found with
+    // one heap per part of the rows and the heaps then merged. Nulls come last, as in sortBy.
+    static int[] select(Column column, int[] candidates, int count, int n, boolean ascending, int parallelism)
+            throws DataFrameException {
+        int parts = Math.max(1, Math.min(parallelism, count / ChunkExecutor.CHUNK_SIZE));
+        long[] ranks = dictionaryRanks(column);
+        boolean strings = column.getType().equals("String") && ranks == null;
+        List<TopNHeap> heaps = ChunkExecutor.runChunks(parts, parts, part -> {
+            int from = (int) ((long) count * part / parts);
+            int to = (int) ((long) count * (part + 1) / parts);
+            TopNHeap heap = new TopNHeap(Math.min(n, to - from), strings, !ascending);
+            heap.fill(column, ranks, candidates, from, to, ascending);
+            return heap;
+        });
+        TopNHeap result = new TopNHeap(Math.min(n, count), strings, !ascending);
+        for (TopNHeap heap : heaps) {
+            for (int i = 0; i < heap.size; i++) {
+                if (strings) {
+                    result.offer(heap.rows[i], heap.values[i]);
+                } else {
+                    result.offer(heap.rows[i], heap.keys[i]);
+                }
+            }
+        }
+        int[] top = result.sortedRows();
+        if (top.length == Math.min(n, count)) {
+            return top;
+        }
+        // Fewer non-null rows than asked for: fill up with null rows in row order
+        int[] withNulls = Arrays.copyOf(top, Math.min(n, count));
+        int filled = top.length;
+        for (int i = 0; i < count && filled < withNulls.length; i++) {
+            int row = candidates == null ? i : candidates[i];
+            if (column.isNull(row)) {
+                withNulls[filled++] = row;
+            }
+        }
+        return withNulls;
+    }
+
+    // Offer the non-null rows among candidate positions [from, to), with the type switch outside the loops.
+    private void fill(Column column, long[] ranks, int[] candidates, int from, int to, boolean ascending) {
+        long flip = ascending ? 0 : -1L; // complementing a key reverses its order
+        String type = column.getType();
+        Column base = SelectedColumn.baseOf(column);
+        SelectedColumn view = column instanceof SelectedColumn ? (SelectedColumn) column : null;
+        for (int i = from; i < to; i++) {
+            int row = candidates == null ? i : candidates[i];
+            if (column.isNull(row)) {
+                continue;
+            }
+            if (values != null) {
+                offer(row, column.getString(row));
+            } else if (ranks != null) {
+                offer(row, ranks[((DictionaryStringColumn) base).getCode(view == null ? row : view.baseRow(row))] ^ flip);
+            } else if (type.equals("int")) {
+                offer(row, column.getInt(row) ^ flip);
+            } else if (type.equals("char")) {
+                offer(row, column.getChar(row) ^ flip);
+            } else {
+                offer(row, RowSorter.sortableBits(column.getDouble(row)) ^ flip);
+            }
+        }
+    }
+
+    // Rank of every dictionary code in String order, or null if the column is not dictionary-encoded.
+    private static long[] dictionaryRanks(Column column) {
+        Column base = SelectedColumn.baseOf(column);
+        if (!(base instanceof DictionaryStringColumn)) {
+            return null;
+        }
+        DictionaryStringColumn dictionaryColumn = (DictionaryStringColumn) base;
+        Integer[] codes = new Integer[dictionaryColumn.getDictionarySize()];
+        Arrays.setAll(codes, code -> code);
+        Arrays.sort(codes, (a, b) -> dictionaryColumn.getDictionaryValue(a).compareTo(dictionaryColumn.getDictionaryValue(b)));
+        long[] ranks = new long[codes.length];
+        for (int rank = 0; rank < codes.length; rank++) {
+            ranks[codes[rank]] = rank;
+        }
+        return ranks;
+    }
+
+    private void offer(int row, long key) {
+        if (size < rows.length) {
+            rows[size] = row;
+            keys[size] = key;
+            siftUp(size++);
+        } else if (size > 0 && (key < keys[0] || (key == keys[0] && row < rows[0]))) {
+            rows[0] = row;
+            keys[0] = key;
+            siftDown(0);
+        }
+    }
+
+    private void offer(int row, String value) {
+        if (size < rows.length) {
+            rows[size] = row;
+            values[size] = value;
+            siftUp(size++);
+        } else if (size > 0 && compareValues(value, row, values[0], rows[0]) < 0) {
+            rows[0] = row;
+            values[0] = value;
+            siftDown(0);
+        }
+    }
+
+    // Order of two kept entries; the heap keeps the greatest at the root.
+    private int compare(int a, int b) {
+        if (values != null) {
+            return compareValues(values[a], rows[a], values[b], rows[b]);
+        }
+        int byKey = Long.compare(keys[a], keys[b]);
+        return byKey != 0 ? byKey : Integer.compare(rows[a], rows[b]);
+    }
+
+    private int compareValues(String valueA, int rowA, String valueB, int rowB) {
+        int byValue = descending ? valueB.compareTo(valueA) : valueA.compareTo(valueB);
+        return byValue != 0 ? byValue : Integer.compare(rowA, rowB);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (compare(i, parent) <= 0) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            if (left < size && compare(left, largest) > 0) {
+                largest = left;
+            }
+            if (left + 1 < size && compare(left + 1, largest) > 0) {
+                largest = left + 1;
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int row = rows[a];
+        rows[a] = rows[b];
+        rows[b] = row;
+        if (values != null) {
+            String value = values[a];
+            values[a] = values[b];
+            values[b] = value;
+        } else {
+            long key = keys[a];
+            keys[a] = keys[b];
+            keys[b] = key;
+        }
+    }
+
+    // The kept rows best first, emptying the heap.
+    private int[] sortedRows() {
+        int[] sorted = new int[size];
+        while (size > 0) {
+            sorted[size - 1] = rows[0];
+            swap(0, --size);
+            siftDown(0);
+        }
+        return sorted;
+    }
+}
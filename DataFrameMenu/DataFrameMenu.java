@@ -1,76 +1,60 @@
-import java.io.*;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DataFrameMenu {
-    private List<DataFrame> dataFrames;
-    private DataFrame activeDataFrame;
+    // Safe to use from several threads: DataFrames are only ever added, and each operation reads the active
+    // DataFrame once. The frequency table, subset, join and export work on a snapshot, so they see a consistent
+    // DataFrame while other threads append to it. Each DataFrame's snapshot is kept until the DataFrame changes,
+    // so statistics and condition results cached on it serve the following operations too. Average, minimum and maximum run on the live DataFrame, whose
+    // column statistics are computed and cached under its lock, so they too see it between appends.
+    private final List<DataFrame> dataFrames;
+    private volatile DataFrame activeDataFrame;
+    private final Map<DataFrame, DataFrame> snapshots = new IdentityHashMap<>(); // latest snapshot of each DataFrame
 
     public DataFrameMenu() {
-        this.dataFrames = new ArrayList<>();
+        this.dataFrames = new CopyOnWriteArrayList<>();
         this.activeDataFrame = null;
     }
 
-    // Import data from a CSV file and create a new DataFrame.
-    public void importCSV(String filePath) throws DataFrameException {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line = reader.readLine();
-            if (line == null) {
-                throw new DataFrameException("Empty CSV file.");
-            }
-            List<String> columnHeaders = Arrays.asList(line.split(","));
-            line = reader.readLine();
-            if (line == null) {
-                throw new DataFrameException("Missing data types in CSV file.");
-            }
-            List<String> dataTypes = Arrays.asList(line.split(","));
-            if (columnHeaders.size() != dataTypes.size()) {
-                throw new DataFrameException("Mismatch between column headers and data types.");
-            }
+    // Add a DataFrame and make it the active one, in one step for other threads.
+    private synchronized void addActiveDataFrame(DataFrame dataFrame) {
+        dataFrames.add(dataFrame);
+        activeDataFrame = dataFrame;
+    }
 
-            DataFrame dataFrame = new DataFrame();
-            dataFrame.setColumnHeaders(columnHeaders);
-            dataFrame.setDataTypes(dataTypes);
+    // The active DataFrame, failing if there is none.
+    private DataFrame activeDataFrame() throws DataFrameException {
+        DataFrame dataFrame = activeDataFrame;
+        if (dataFrame == null) {
+            throw new DataFrameException("No active DataFrame.");
+        }
+        return dataFrame;
+    }
 
-            while ((line = reader.readLine()) != null) {
-                List<DataElement> row = new ArrayList<>();
-                String[] values = line.split(",");
-                if (values.length != columnHeaders.size()) {
-                    throw new DataFrameException("Mismatch between data and column headers.");
-                }
+    // A snapshot of a DataFrame, the same one as last time unless the DataFrame's data or headers have changed.
+    private synchronized DataFrame snapshotOf(DataFrame dataFrame) {
+        DataFrame snapshot = snapshots.get(dataFrame);
+        if (snapshot == null || snapshot.getModCount() != dataFrame.getModCount()
+                || !snapshot.getColumnHeaders().equals(dataFrame.getColumnHeaders())) {
+            snapshot = dataFrame.snapshot();
+            snapshots.put(dataFrame, snapshot);
+        }
+        return snapshot;
+    }
 
-                for (int i = 0; i < values.length; i++) {
-                    DataElement element;
-                    switch (dataTypes.get(i)) {
-                        case "int":
-                            element = new IntElement(Integer.parseInt(values[i]));
-                            break;
-                        case "double":
-                            element = new DoubleElement(Double.parseDouble(values[i]));
-                            break;
-                        case "char":
-                            element = new CharElement(values[i].charAt(0));
-                            break;
-                        case "String":
-                            element = new StringElement(values[i]);
-                            break;
-                        default:
-                            throw new DataFrameException("Invalid data type: " + dataTypes.get(i));
-                    }
-                    row.add(element);
-                }
-                dataFrame.addDataRow(row);
-            }
+    // Import data from a CSV file and create a new DataFrame.
+    public void importCSV(String filePath) throws DataFrameException {
+        importCSV(filePath, false);
+    }
 
-            dataFrames.add(dataFrame);
-            activeDataFrame = dataFrame;
-            System.out.println("CSV imported successfully. Active DataFrame set to the new one.");
-        } catch (IOException e) {
-            throw new DataFrameException("Error reading CSV file: " + e.getMessage());
-        }
+    // Import data from a CSV file, optionally parsing it from a memory mapping of the file, and create a new DataFrame.
+    public void importCSV(String filePath, boolean memoryMapped) throws DataFrameException {
+        addActiveDataFrame(DataFrame.fromCSV(filePath, memoryMapped));
+        System.out.println("CSV imported successfully. Active DataFrame set to the new one.");
     }
 
     // Change the active DataFrame to the one at the specified index.
-    public void changeActiveDataFrame(int index) throws DataFrameException {
+    public synchronized void changeActiveDataFrame(int index) throws DataFrameException {
         if (index < 0 || index >= dataFrames.size()) {
             throw new DataFrameException("Invalid DataFrame index.");
         }
@@ -81,10 +65,7 @@ public class DataFrameMenu {
     // Calculate the average value of a column in the active DataFrame.
     public void averageColumn(String columnName) {
         try {
-            if (activeDataFrame == null) {
-                throw new DataFrameException("No active DataFrame.");
-            }
-            double average = activeDataFrame.averageColumn(columnName);
+            double average = activeDataFrame().averageColumn(columnName);
             System.out.println("Average of column '" + columnName + "': " + average);
         } catch (DataFrameException e) {
             System.out.println("Error: " + e.getMessage());
@@ -94,10 +75,7 @@ public class DataFrameMenu {
     // Find the minimum value in a column in the active DataFrame.
     public void minColumn(String columnName) {
         try {
-            if (activeDataFrame == null) {
-                throw new DataFrameException("No active DataFrame.");
-            }
-            double min = activeDataFrame.minColumn(columnName);
+            double min = activeDataFrame().minColumn(columnName);
             System.out.println("Minimum of column '" + columnName + "': " + min);
         } catch (DataFrameException e) {
             System.out.println("Error: " + e.getMessage());
@@ -107,10 +85,7 @@ public class DataFrameMenu {
     // Find the maximum value in a column in the active DataFrame.
     public void maxColumn(String columnName) {
         try {
-            if (activeDataFrame == null) {
-                throw new DataFrameException("No active DataFrame.");
-            }
-            double max = activeDataFrame.maxColumn(columnName);
+            double max = activeDataFrame().maxColumn(columnName);
             System.out.println("Maximum of column '" + columnName + "': " + max);
         } catch (DataFrameException e) {
             System.out.println("Error: " + e.getMessage());
@@ -120,10 +95,7 @@ public class DataFrameMenu {
     // Create a frequency table for a column in the active DataFrame.
     public void frequencyTable(String columnName, int intervalCount) {
         try {
-            if (activeDataFrame == null) {
-                throw new DataFrameException("No active DataFrame.");
-            }
-            Map<String, Integer> table = activeDataFrame.frequencyTable(columnName, intervalCount);
+            Map<String, Integer> table = snapshotOf(activeDataFrame()).frequencyTable(columnName, intervalCount);
             System.out.println("Frequency table for column '" + columnName + "':");
             for (Map.Entry<String, Integer> entry : table.entrySet()) {
                 System.out.println(entry.getKey() + ": " + entry.getValue());
@@ -136,27 +108,44 @@ public class DataFrameMenu {
     // Create a subset DataFrame based on the given condition and set it as active.
     public void subsetDataFrame(String condition) {
         try {
-            if (activeDataFrame == null) {
-                throw new DataFrameException("No active DataFrame.");
-            }
-            DataFrame subset = activeDataFrame.subsetDataFrame(condition);
-            dataFrames.add(subset);
-            activeDataFrame = subset;
+            addActiveDataFrame(snapshotOf(activeDataFrame()).subsetDataFrame(condition));
             System.out.println("Subset created and set as active DataFrame.");
         } catch (DataFrameException e) {
             System.out.println("Error: " + e.getMessage());
         }
     }
 
+    // Join the active DataFrame with the one at the specified index on comma-separated key columns, as an inner
+    // join or a left join keeping unmatched rows of the active DataFrame, and set the result as active.
+    public void joinDataFrame(int index, String keyColumns, boolean left) {
+        try {
+            DataFrame active = activeDataFrame();
+            if (index < 0 || index >= dataFrames.size()) {
+                throw new DataFrameException("Invalid DataFrame index.");
+            }
+            String[] keys = keyColumns.split(",");
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = keys[i].trim();
+            }
+            DataFrame snapshot = snapshotOf(active);
+            DataFrame other = snapshotOf(dataFrames.get(index));
+            addActiveDataFrame(left ? snapshot.leftJoin(other, keys) : snapshot.innerJoin(other, keys));
+            System.out.println("Join created and set as active DataFrame.");
+        } catch (DataFrameException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
     // Export the active DataFrame to a CSV file.
     public void exportToCSV() {
         try {
-            if (activeDataFrame == null) {
+            DataFrame active = activeDataFrame;
+            if (active == null) {
                 throw new DataFrameMenuException("No active DataFrame.");
             }
-            int index = dataFrames.indexOf(activeDataFrame);
+            int index = dataFrames.indexOf(active);
             String fileName = "DataFrame" + index + ".csv";
-            activeDataFrame.exportToCSV(fileName);
+            snapshotOf(active).exportToCSV(fileName);
             System.out.println("Active DataFrame exported to file: " + fileName);
         } catch (Exception e) {
             System.out.println("Error: " + e.getMessage());
@@ -182,7 +171,8 @@ public class DataFrameMenu {
             System.out.println("6. Create frequency table");
             System.out.println("7. Subset DataFrame");
             System.out.println("8. Export DataFrame to CSV");
-            System.out.println("9. Quit");
+            System.out.println("9. Join with another DataFrame");
+            System.out.println("10. Quit");
 
             String option = scanner.nextLine();
 
@@ -191,7 +181,9 @@ public class DataFrameMenu {
                     case "1":
                         System.out.println("Enter file path:");
                         String filePath = scanner.nextLine();
-                        importCSV(filePath);
+                        System.out.println("Use memory-mapped import for large files? (y/n):");
+                        boolean memoryMapped = scanner.nextLine().trim().equalsIgnoreCase("y");
+                        importCSV(filePath, memoryMapped);
                         break;
                     case "2":
                         System.out.println("Enter DataFrame index:");
@@ -229,6 +221,15 @@ public class DataFrameMenu {
                         exportToCSV();
                         break;
                     case "9":
+                        System.out.println("Enter index of the DataFrame to join with:");
+                        index = Integer.parseInt(scanner.nextLine());
+                        System.out.println("Enter key columns (comma-separated):");
+                        String keyColumns = scanner.nextLine();
+                        System.out.println("Keep rows without a match (left join)? (y/n):");
+                        boolean left = scanner.nextLine().trim().equalsIgnoreCase("y");
+                        joinDataFrame(index, keyColumns, left);
+                        break;
+                    case "10":
                         quit();
                         scanner.close();
                         return;
@@ -27,4 +27,14 @@ public class CharElement implements DataElement {
       }
       return Character.compare(this.value, ((CharElement) other).value);
     }
-  }
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof CharElement && value == ((CharElement) other).value;
+    }
+
+    @Override
+    public int hashCode() {
+      return Character.hashCode(value);
+    }
+  }
@@ -26,4 +26,14 @@ public class DoubleElement implements DataElement {
         }
         return Double.compare(this.value, ((DoubleElement) other).value);
     }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DoubleElement && Double.compare(value, ((DoubleElement) other).value) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Double.hashCode(value);
+    }
 }
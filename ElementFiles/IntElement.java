@@ -26,4 +26,14 @@ public class IntElement implements DataElement {
         }
         return Integer.compare(this.value, ((IntElement) other).value);
     }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof IntElement && value == ((IntElement) other).value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(value);
+    }
 }
@@ -1,3 +1,5 @@
+import java.util.Objects;
+
 public class StringElement implements DataElement {
     private String value;
 
@@ -26,4 +28,14 @@ public class StringElement implements DataElement {
         }
         return this.value.compareTo(((StringElement) other).value);
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof StringElement && Objects.equals(value, ((StringElement) other).value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(value);
+    }
+}
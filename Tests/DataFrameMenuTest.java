@@ -137,4 +137,95 @@ public class DataFrameMenuTest {
         // Test exporting the DataFrame to a CSV
         assertDoesNotThrow(() -> menu.exportToCSV());
     }
+
+    @Test
+    public void testImportCSVRejectsMalformedRows() throws Exception {
+        // Create a CSV file with a bad number and one with a missing field
+        File badNumber = File.createTempFile("test", ".csv");
+        try (PrintWriter writer = new PrintWriter(badNumber)) {
+            writer.println("Column1,Column2");
+            writer.println("int,double");
+            writer.println("1,abc");
+        }
+        File missingField = File.createTempFile("test", ".csv");
+        try (PrintWriter writer = new PrintWriter(missingField)) {
+            writer.println("Column1,Column2");
+            writer.println("int,double");
+            writer.println("1");
+        }
+
+        // Test that both imports are reported as DataFrame errors
+        assertThrows(DataFrameException.class, () -> menu.importCSV(badNumber.getAbsolutePath()));
+        assertThrows(DataFrameException.class, () -> menu.importCSV(missingField.getAbsolutePath()));
+    }
+
+    @Test
+    public void testImportCSVMemoryMapped() throws Exception {
+        // Create a temporary CSV file with Windows line endings
+        File tempFile = File.createTempFile("test", ".csv");
+        try (PrintWriter writer = new PrintWriter(tempFile)) {
+            writer.print("Column1,Column2,Column3\r\n");
+            writer.print("int,double,String\r\n");
+            writer.print("1,2.5,hello\r\n");
+            writer.print("2,3.5,world\r\n");
+        }
+
+        // Test that the memory-mapped path reads the same rows as the default path
+        DataFrame mapped = DataFrame.fromCSV(tempFile.getAbsolutePath(), true);
+        DataFrame read = DataFrame.fromCSV(tempFile.getAbsolutePath(), false);
+        assertEquals(read.getDataRows(), mapped.getDataRows());
+        assertEquals(Arrays.asList(new IntElement(2), new DoubleElement(3.5), new StringElement("world")), mapped.getDataRows().get(1));
+        assertDoesNotThrow(() -> menu.importCSV(tempFile.getAbsolutePath(), true));
+    }
+
+    @Test
+    public void testImportCSVRepeatedStrings() throws Exception {
+        // Create a temporary CSV file with a low-cardinality String column
+        File tempFile = File.createTempFile("test", ".csv");
+        try (PrintWriter writer = new PrintWriter(tempFile)) {
+            writer.println("id,country");
+            writer.println("int,String");
+            for (int i = 0; i < 1000; i++) {
+                writer.println(i + "," + (i % 3 == 0 ? "Sverige" : i % 3 == 1 ? "Deutschland" : ""));
+            }
+        }
+
+        // Test that subsets, edits and exports see the imported strings
+        DataFrame df = DataFrame.fromCSV(tempFile.getAbsolutePath(), false);
+        assertEquals(334, df.subsetDataFrame("country == Sverige").getDataRows().size());
+        assertEquals(666, df.subsetDataFrame("country != Sverige").getDataRows().size());
+        assertEquals(0, df.subsetDataFrame("country == Norge").getDataRows().size());
+        df.getDataRows().get(0).set(1, new StringElement("Norge"));
+        assertEquals(new StringElement("Norge"), df.subsetDataFrame("country == Norge").getDataRows().get(0).get(1));
+        File exported = File.createTempFile("test", ".csv");
+        df.exportToCSV(exported.getAbsolutePath());
+        assertEquals(df.getDataRows(), DataFrame.fromCSV(exported.getAbsolutePath(), false).getDataRows());
+
+        // Test that a copy sharing the dictionary and the original each add values without seeing the other's
+        DataFrame copy = df.materialize();
+        copy.getDataRows().get(1).set(1, new StringElement("Suomi"));
+        df.getDataRows().get(2).set(1, new StringElement("Danmark"));
+        assertEquals(0, df.subsetDataFrame("country == Suomi").getDataRows().size());
+        assertEquals(0, copy.subsetDataFrame("country == Danmark").getDataRows().size());
+        assertEquals(1, copy.subsetDataFrame("country == Suomi").getDataRows().size());
+        assertEquals(1, df.subsetDataFrame("country == Norge").getDataRows().size());
+        assertEquals(1, copy.subsetDataFrame("country == Norge").getDataRows().size());
+
+        // Test that values added past the dictionary size limit stay correct once the column falls back to plain strings
+        DataFrame view = df.subsetDataFrame("id < 10");
+        List<List<DataElement>> rows = new ArrayList<>();
+        for (int i = 0; i < 70000; i++) {
+            rows.add(Arrays.asList(new IntElement(1000 + i), new StringElement("land" + i)));
+        }
+        df.addDataRows(rows);
+        df.getDataRows().get(3).set(1, new StringElement("Island"));
+        assertEquals(332, df.subsetDataFrame("country == Sverige").getDataRows().size());
+        assertEquals(new IntElement(70999), df.subsetDataFrame("country == land69999").getDataRows().get(0).get(0));
+        assertEquals(new IntElement(3), df.subsetDataFrame("country == Island").getDataRows().get(0).get(0));
+
+        // Test that a view taken before the fallback keeps its rows and still answers conditions on them
+        assertEquals(3, view.subsetDataFrame("country == Sverige").getDataRows().size());
+        assertEquals(0, view.subsetDataFrame("country == Island").getDataRows().size());
+        assertEquals(new StringElement("Sverige"), view.getDataRows().get(3).get(1));
+    }
 }
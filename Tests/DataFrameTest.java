@@ -1,6 +1,8 @@
 package Tests;
 import org.junit.jupiter.api.Test;
 
+import CharElement;
+import CsvPipeline;
 import DataElement;
 import DataFrame;
 import DataFrameException;
@@ -11,10 +13,16 @@ import StringElement;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DataFrameTest {
 
@@ -202,4 +210,837 @@ public class DataFrameTest {
         // Check if an exception is thrown when trying to compare a value with a null value
         assertThrows(IllegalArgumentException.class, () -> df.getDataRows().get(0).get(0).compareTo(null));
     }
-}
\ No newline at end of file
+
+    @Test
+    // Test case for writing a value back through the row view of the columnar storage
+    public void testSetValueThroughDataRows() {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score"));
+        df.setDataTypes(Arrays.asList("int", "double"));
+        df.addDataRow(Arrays.asList(new IntElement(1), new DoubleElement(2.0)));
+        df.addDataRow(Arrays.asList(new IntElement(2), new DoubleElement(4.0)));
+        // Replace a value through the row view
+        df.getDataRows().get(1).set(1, new DoubleElement(8.0));
+        try {
+            // Check if the column storage sees the new value
+            assertEquals(8.0, df.maxColumn("score"));
+            assertEquals(5.0, df.averageColumn("score"));
+        } catch (DataFrameException e) {
+            // If an exception is thrown, the test fails
+            fail("Exception should not be thrown.");
+        }
+        // Check if setValue on an element of the row view writes back to the cell, and a wrong type changes nothing
+        DataElement id = df.getDataRows().get(0).get(0);
+        id.setValue(7);
+        assertEquals(new IntElement(7), df.getDataRows().get(0).get(0));
+        assertThrows(IllegalArgumentException.class, () -> id.setValue("seven"));
+        assertEquals(new IntElement(7), id);
+        assertEquals(new IntElement(7), df.getDataRows().get(0).get(0));
+        // Check if elements of the wrong type are rejected
+        assertThrows(IllegalArgumentException.class, () -> df.addDataRow(Arrays.asList(new DoubleElement(1.0), new DoubleElement(2.0))));
+    }
+
+    @Test
+    // Test case for subset conditions mixing AND, OR, NOT and parentheses
+    public void testSubsetDataFrameCompoundCondition() {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score", "grade", "name"));
+        df.setDataTypes(Arrays.asList("int", "double", "char", "String"));
+        df.addDataRow(Arrays.asList(new IntElement(1), new DoubleElement(2.5), new CharElement('A'), new StringElement("ann")));
+        df.addDataRow(Arrays.asList(new IntElement(2), new DoubleElement(7.5), new CharElement('B'), new StringElement("bob")));
+        df.addDataRow(Arrays.asList(new IntElement(3), new DoubleElement(9.0), new CharElement('A'), new StringElement("cid")));
+        try {
+            // AND binds tighter than OR
+            assertEquals(2, df.subsetDataFrame("id == 1 OR score > 5 AND grade == A").getDataRows().size());
+            // Parentheses override the precedence
+            assertEquals(1, df.subsetDataFrame("(id == 1 OR score > 5) AND name != cid AND grade == A").getDataRows().size());
+            // NOT negates the following condition
+            assertEquals(2, df.subsetDataFrame("NOT name == bob").getDataRows().size());
+        } catch (DataFrameException e) {
+            // If an exception is thrown, the test fails
+            fail("Exception should not be thrown.");
+        }
+        // Check if unknown columns and operators are reported
+        assertThrows(DataFrameException.class, () -> df.subsetDataFrame("missing > 1"));
+        assertThrows(DataFrameException.class, () -> df.subsetDataFrame("id >= 1"));
+        assertThrows(DataFrameException.class, () -> df.subsetDataFrame("(id > 1"));
+    }
+
+    @Test
+    // Test case for parallel aggregations matching the sequential results
+    public void testParallelAggregationsMatchSequential() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("value"));
+        df.setDataTypes(Arrays.asList("double"));
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < 300000; i++) {
+            df.addDataRow(Arrays.asList(new DoubleElement(random.nextGaussian() * 1e6)));
+        }
+        // Compute every aggregation on one thread
+        df.setParallelism(1);
+        double avg = df.averageColumn("value");
+        double min = df.minColumn("value");
+        double max = df.maxColumn("value");
+        Map<String, Integer> table = df.frequencyTable("value", 10);
+        // Check if the parallel path gives identical answers
+        df.setParallelism(8);
+        assertEquals(avg, df.averageColumn("value"));
+        assertEquals(min, df.minColumn("value"));
+        assertEquals(max, df.maxColumn("value"));
+        assertEquals(table, df.frequencyTable("value", 10));
+    }
+
+    @Test
+    // Test case for histogram bins including the maximum value
+    public void testHistogramCountsEveryValue() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("value"));
+        df.setDataTypes(Arrays.asList("double"));
+        for (double value : new double[] {0.0, 0.1, 0.2, 0.5, 0.7, 1.0}) {
+            df.addDataRow(Arrays.asList(new DoubleElement(value)));
+        }
+        Histogram histogram = df.histogram("value", 3);
+        // Check if the bin edges and counts are as expected
+        assertEquals(0.0, histogram.getEdge(0));
+        assertEquals(1.0, histogram.getEdge(3));
+        assertArrayEquals(new int[] {3, 1, 2}, histogram.getCounts());
+        // Check if the frequency table keeps one entry per interval and counts every value
+        Map<String, Integer> table = df.frequencyTable("value", 3);
+        assertEquals(3, table.size());
+        assertEquals(6, table.values().stream().mapToInt(Integer::intValue).sum());
+        // Check if an explicit range counts only the values inside it
+        assertArrayEquals(new int[] {2, 1}, df.histogram("value", 2, 0.0, 0.4).getCounts());
+        assertThrows(DataFrameException.class, () -> df.frequencyTable("value", 0));
+    }
+
+    @Test
+    // Test case for exporting a DataFrame to an output stream
+    public void testExportToOutputStream() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score", "name"));
+        df.setDataTypes(Arrays.asList("int", "double", "String"));
+        df.addDataRow(Arrays.asList(new IntElement(-7), new DoubleElement(2.0), new StringElement("ann")));
+        df.addDataRow(Arrays.asList(new IntElement(12), new DoubleElement(0.25), new StringElement("bob")));
+        java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream();
+        df.exportToCSV(output);
+        // Check if the written text matches the CSV layout read by importCSV
+        String separator = System.lineSeparator();
+        assertEquals("id,score,name" + separator + "int,double,String" + separator
+                + "-7,2.0,ann" + separator + "12,0.25,bob" + separator, output.toString());
+    }
+
+    @Test
+    // Test case for exporting nulls of every type to CSV and importing them back
+    public void testExportToCSVWithNulls() throws Exception {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score", "grade", "name"));
+        df.setDataTypes(Arrays.asList("int", "double", "char", "String"));
+        df.addDataRow(Arrays.asList(new IntElement(1), new DoubleElement(2.5), new CharElement('A'), new StringElement("ann")));
+        df.addDataRow(Arrays.asList(null, null, null, null));
+        df.addDataRow(Arrays.asList(new IntElement(3), new DoubleElement(0.5), new CharElement('C'), new StringElement("")));
+        java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream();
+        df.exportToCSV(output);
+        // Check if nulls are written as \N and an empty String as an empty field
+        String separator = System.lineSeparator();
+        assertTrue(output.toString().endsWith(separator + "\\N,\\N,\\N,\\N" + separator + "3,0.5,C," + separator));
+        // Check if every null and the empty String survive the round trip, read from the heap and from a mapping
+        File file = File.createTempFile("test", ".csv");
+        df.exportToCSV(file.getAbsolutePath());
+        assertEquals(df.getDataRows(), DataFrame.fromCSV(file.getAbsolutePath(), false).getDataRows());
+        assertEquals(df.getDataRows(), DataFrame.fromCSV(file.getAbsolutePath(), true).getDataRows());
+        // Check if a left join with unmatched rows can be exported and imported again
+        DataFrame cities = new DataFrame();
+        cities.setColumnHeaders(Arrays.asList("id", "city"));
+        cities.setDataTypes(Arrays.asList("int", "String"));
+        cities.addDataRow(Arrays.asList(new IntElement(1), new StringElement("Oslo")));
+        DataFrame joined = df.leftJoin(cities, "id");
+        joined.exportToCSV(file.getAbsolutePath());
+        DataFrame imported = DataFrame.fromCSV(file.getAbsolutePath(), false);
+        assertEquals(joined.getDataRows(), imported.getDataRows());
+        assertEquals(1, imported.subsetDataFrame("city == Oslo").getDataRows().size());
+        file.delete();
+    }
+
+    @Test
+    // Test case for saving a DataFrame in the binary format and loading it back
+    public void testSaveAndLoad() throws Exception {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score", "grade", "name"));
+        df.setDataTypes(Arrays.asList("int", "double", "char", "String"));
+        df.addDataRow(Arrays.asList(new IntElement(1), new DoubleElement(2.5), new CharElement('A'), new StringElement("ann")));
+        df.addDataRow(Arrays.asList(new IntElement(2), null, new CharElement('B'), new StringElement("bob")));
+        File file = File.createTempFile("test", ".dfb");
+        df.save(file.getAbsolutePath());
+        DataFrame loaded = DataFrame.load(file.getAbsolutePath());
+        // Check if headers, types and every row survive the round trip
+        assertEquals(df.getColumnHeaders(), loaded.getColumnHeaders());
+        assertEquals(df.getDataTypes(), loaded.getDataTypes());
+        assertEquals(df.getDataRows(), loaded.getDataRows());
+        assertEquals(2.5, loaded.averageColumn("score"));
+        // Check if truncated and corrupt files are reported as DataFrameExceptions, by load and by open
+        byte[] saved = Files.readAllBytes(file.toPath());
+        for (int length = 0; length < saved.length; length += 7) {
+            Files.write(file.toPath(), Arrays.copyOf(saved, length));
+            assertThrows(DataFrameException.class, () -> DataFrame.load(file.getAbsolutePath()));
+            assertThrows(DataFrameException.class, () -> DataFrame.open(file.getAbsolutePath()));
+        }
+        for (int position = 8; position < saved.length; position++) {
+            byte[] corrupt = saved.clone();
+            corrupt[position] = (byte) 0xFF;
+            Files.write(file.toPath(), corrupt);
+            try {
+                DataFrame.load(file.getAbsolutePath());
+                DataFrame.open(file.getAbsolutePath());
+            } catch (DataFrameException e) {
+                // rejected as expected; a byte inside a value can also give a valid file
+            }
+        }
+        // Check if a file in another format is rejected
+        df.exportToCSV(file.getAbsolutePath());
+        assertThrows(DataFrameException.class, () -> DataFrame.load(file.getAbsolutePath()));
+    }
+
+    @Test
+    // Test case for querying a saved DataFrame through memory-mapped columns
+    public void testOpenMemoryMapped() throws Exception {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score", "name"));
+        df.setDataTypes(Arrays.asList("int", "double", "String"));
+        for (int i = 0; i < 1000; i++) {
+            df.addDataRow(Arrays.asList(new IntElement(i), i % 10 == 0 ? null : new DoubleElement(i / 10.0), new StringElement("n" + i)));
+        }
+        File file = File.createTempFile("test", ".dfb");
+        df.save(file.getAbsolutePath());
+        DataFrame mapped = DataFrame.open(file.getAbsolutePath());
+        // Check if aggregations and subsets give the same answers as on the heap
+        assertEquals(df.averageColumn("score"), mapped.averageColumn("score"));
+        assertEquals(df.maxColumn("score"), mapped.maxColumn("score"));
+        assertEquals(df.frequencyTable("score", 4), mapped.frequencyTable("score", 4));
+        assertEquals(df.subsetDataFrame("score > 50 AND name != n999").getDataRows(),
+                mapped.subsetDataFrame("score > 50 AND name != n999").getDataRows());
+        // Check if the mapped DataFrame is read-only
+        assertThrows(UnsupportedOperationException.class,
+                () -> mapped.addDataRow(Arrays.asList(new IntElement(1), new DoubleElement(1.0), new StringElement("x"))));
+    }
+
+    @Test
+    // Test case for aggregating a CSV file in a streaming pipeline without loading it
+    public void testCsvPipelineMatchesSubset() throws Exception {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score", "name"));
+        df.setDataTypes(Arrays.asList("int", "double", "String"));
+        for (int i = 0; i < 1000; i++) {
+            df.addDataRow(Arrays.asList(new IntElement(i), new DoubleElement(i % 97 / 4.0), new StringElement("n" + i % 7)));
+        }
+        File file = File.createTempFile("test", ".csv");
+        df.exportToCSV(file.getAbsolutePath());
+        List<Long> checkpoints = new ArrayList<>();
+        CsvPipeline.Results results = new CsvPipeline(file.getAbsolutePath())
+                .filter("score > 5 AND name != n3")
+                .average("score").min("score").max("score")
+                .frequencyTable("score", 5)
+                .checkpointEvery(300, checkpoint -> checkpoints.add(checkpoint.getRowsRead()))
+                .run();
+        // Check if the results equal the same aggregations on the subset DataFrame
+        DataFrame subset = df.subsetDataFrame("score > 5 AND name != n3");
+        assertEquals(1000, results.getRowsRead());
+        assertEquals(subset.getDataRows().size(), results.getRowsMatched());
+        assertEquals(subset.averageColumn("score"), results.getAverage("score"));
+        assertEquals(subset.minColumn("score"), results.getMin("score"));
+        assertEquals(subset.maxColumn("score"), results.getMax("score"));
+        assertEquals(subset.frequencyTable("score", 5), results.getFrequencyTable("score"));
+        // Check if checkpoints were reported at the requested row counts
+        assertEquals(Arrays.asList(300L, 600L, 900L), checkpoints);
+        // Check if aggregating a non-double column is rejected
+        assertThrows(DataFrameException.class, () -> new CsvPipeline(file.getAbsolutePath()).average("name").run());
+    }
+
+    @Test
+    // Test case for cached column statistics staying correct when the DataFrame changes
+    public void testCachedStatisticsFollowChanges() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("score"));
+        df.setDataTypes(Arrays.asList("double"));
+        df.addDataRow(Arrays.asList(new DoubleElement(1.0)));
+        df.addDataRow(Arrays.asList(new DoubleElement(3.0)));
+        assertEquals(2.0, df.averageColumn("score"));
+        assertEquals(2.0, df.averageColumn("score"));
+        // Check if appended rows update the cached statistics
+        df.addDataRow(Arrays.asList(new DoubleElement(8.0)));
+        df.addDataRow(Arrays.asList((DataElement) null));
+        assertEquals(4.0, df.averageColumn("score"));
+        assertEquals(8.0, df.maxColumn("score"));
+        // Check if a value set through a row replaces the cached statistics
+        df.getDataRows().get(2).set(0, new DoubleElement(-4.0));
+        assertEquals(0.0, df.averageColumn("score"));
+        assertEquals(-4.0, df.minColumn("score"));
+        // Check if renaming the column is picked up
+        df.setColumnHeaders(Arrays.asList("points"));
+        assertEquals(3.0, df.maxColumn("points"));
+        assertThrows(DataFrameException.class, () -> df.maxColumn("score"));
+    }
+
+    @Test
+    // Test case for cached column statistics following a value changed through an element of the row view
+    public void testCachedStatisticsFollowElementSetValue() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("score"));
+        df.setDataTypes(Arrays.asList("double"));
+        df.addDataRow(Arrays.asList(new DoubleElement(1.0)));
+        df.addDataRow(Arrays.asList(new DoubleElement(3.0)));
+        df.addDataRow(Arrays.asList(new DoubleElement(8.0)));
+        assertEquals(4.0, df.averageColumn("score"));
+        assertEquals(1.0, df.minColumn("score"));
+        assertEquals(8.0, df.maxColumn("score"));
+        // Check if the cached average, minimum and maximum see values set through elements
+        df.getDataRows().get(2).get(0).setValue(-4.0);
+        assertEquals(0.0, df.averageColumn("score"));
+        assertEquals(-4.0, df.minColumn("score"));
+        assertEquals(3.0, df.maxColumn("score"));
+        df.getDataRows().get(0).get(0).setValue(13.0);
+        assertEquals(4.0, df.averageColumn("score"));
+        assertEquals(-4.0, df.minColumn("score"));
+        assertEquals(13.0, df.maxColumn("score"));
+    }
+
+    @Test
+    // Test case for subsets answered through sorted indexes matching full scans
+    public void testSubsetWithSortedIndex() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score", "grade", "name"));
+        df.setDataTypes(Arrays.asList("int", "double", "char", "String"));
+        for (int i = 0; i < 1000; i++) {
+            df.addDataRow(Arrays.asList(new IntElement(i * 37 % 1000 - 500), i % 50 == 0 ? null : new DoubleElement(i % 83 / 2.0),
+                    new CharElement((char) ('A' + i % 26)), new StringElement("n" + i % 300)));
+        }
+        String[] conditions = {"id < -480", "id == 7", "score > 40", "score == 3.5", "grade == Q", "name < n105",
+                "name == n42 AND id > 0", "score < 1 AND grade != A", "id > 490 OR score == 2"};
+        List<List<List<DataElement>>> scanned = new ArrayList<>();
+        for (String condition : conditions) {
+            scanned.add(df.subsetDataFrame(condition).getDataRows());
+        }
+        for (String column : Arrays.asList("id", "score", "grade", "name")) {
+            df.createIndex(column);
+        }
+        // Check if every condition gives the same rows, in the same order, with the indexes
+        for (int i = 0; i < conditions.length; i++) {
+            assertEquals(scanned.get(i), df.subsetDataFrame(conditions[i]).getDataRows());
+        }
+        // Check if the indexes follow appended and changed rows
+        df.addDataRow(Arrays.asList(new IntElement(-999), new DoubleElement(100.0), new CharElement('Q'), new StringElement("n1")));
+        df.getDataRows().get(0).set(1, new DoubleElement(99.0));
+        assertEquals(2, df.subsetDataFrame("score > 98").getDataRows().size());
+        assertEquals(-999, df.subsetDataFrame("id < -500").getDataRows().get(0).get(0).getValue());
+    }
+
+    @Test
+    // Test case for IN lists and equality subsets answered through hash indexes
+    public void testSubsetWithHashIndex() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "grade", "name"));
+        df.setDataTypes(Arrays.asList("int", "char", "String"));
+        for (int i = 0; i < 1000; i++) {
+            df.addDataRow(Arrays.asList(new IntElement(i % 250), new CharElement((char) ('A' + i % 26)),
+                    i % 100 == 0 ? null : new StringElement("n" + i % 300)));
+        }
+        String[] conditions = {"name == n42", "name IN (n1, n2,n3 )", "id IN (7,8) AND grade != B", "grade == Z",
+                "id == 7.5", "NOT name IN (n5)"};
+        List<List<List<DataElement>>> scanned = new ArrayList<>();
+        for (String condition : conditions) {
+            scanned.add(df.subsetDataFrame(condition).getDataRows());
+        }
+        assertEquals(12, scanned.get(1).size());
+        df.createHashIndex("id");
+        df.createHashIndex("grade");
+        df.createHashIndex("name");
+        // Check if every condition gives the same rows, in the same order, with the indexes
+        for (int i = 0; i < conditions.length; i++) {
+            assertEquals(scanned.get(i), df.subsetDataFrame(conditions[i]).getDataRows());
+        }
+        // Check if appended rows are found and double columns are rejected
+        df.addDataRow(Arrays.asList(new IntElement(7), new CharElement('Q'), new StringElement("n42")));
+        assertEquals(5, df.subsetDataFrame("name == n42").getDataRows().size());
+        assertThrows(DataFrameException.class, () -> df.subsetDataFrame("id IN ()"));
+        DataFrame numbers = new DataFrame();
+        numbers.setColumnHeaders(Arrays.asList("score"));
+        numbers.setDataTypes(Arrays.asList("double"));
+        assertThrows(DataFrameException.class, () -> numbers.createHashIndex("score"));
+    }
+
+    @Test
+    // Test case for subsets as views that can be chained, changed and materialized
+    public void testSubsetViews() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score"));
+        df.setDataTypes(Arrays.asList("int", "double"));
+        for (int i = 0; i < 100; i++) {
+            df.addDataRow(Arrays.asList(new IntElement(i), new DoubleElement(i / 2.0)));
+        }
+        // Check if chained subsets select the same rows as one compound condition
+        DataFrame chained = df.subsetDataFrame("id > 10").subsetDataFrame("score < 20").subsetDataFrame("id != 20");
+        assertEquals(df.subsetDataFrame("id > 10 AND score < 20 AND id != 20").getDataRows(), chained.getDataRows());
+        assertEquals(28, chained.getDataRows().size());
+        assertEquals(11.0 / 2, chained.minColumn("score"));
+        // Check if changing a subset leaves its parent untouched
+        DataFrame subset = df.subsetDataFrame("id < 5");
+        DataFrame copy = subset.materialize();
+        subset.getDataRows().get(0).set(1, new DoubleElement(-1.0));
+        subset.addDataRow(Arrays.asList(new IntElement(100), new DoubleElement(50.0)));
+        assertEquals(0.0, df.minColumn("score"));
+        assertEquals(49.5, df.maxColumn("score"));
+        assertEquals(-1.0, subset.minColumn("score"));
+        assertEquals(6, subset.getDataRows().size());
+        // Check if a materialized copy holds the rows it was taken from
+        assertEquals(df.subsetDataFrame("id < 5").getDataRows(), copy.getDataRows());
+        // Check if changing the parent leaves a view's rows, statistics and conditions as they were taken
+        DataFrame view = df.subsetDataFrame("id < 5");
+        assertEquals(1.0, view.averageColumn("score"));
+        assertEquals(1, view.subsetDataFrame("score > 1.5").getDataRows().size());
+        df.getDataRows().get(0).set(1, new DoubleElement(100.0));
+        df.getDataRows().get(1).get(1).setValue(50.0);
+        assertEquals(new DoubleElement(0.0), view.getDataRows().get(0).get(1));
+        assertEquals(1.0, view.averageColumn("score"));
+        assertEquals(2.0, view.maxColumn("score"));
+        assertEquals(1, view.subsetDataFrame("score > 1.5").getDataRows().size());
+        // Check if a view taken after the change sees it
+        DataFrame changed = df.subsetDataFrame("id < 5");
+        assertEquals(30.9, changed.averageColumn("score"), 1e-9);
+        assertEquals(3, changed.subsetDataFrame("score > 1.5").getDataRows().size());
+    }
+
+    @Test
+    // Test case for mixed AND, OR and NOT conditions over several bitmap blocks, with and without indexes
+    public void testSubsetBitmapConditions() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score", "name"));
+        df.setDataTypes(Arrays.asList("int", "double", "String"));
+        int rows = 200000;
+        for (int i = 0; i < rows; i++) {
+            df.addDataRow(Arrays.asList(new IntElement(i), new DoubleElement(i % 1000 / 10.0), new StringElement("n" + i % 7)));
+        }
+        // Check if the matching rows are the ones expected, in row order
+        String condition = "(id < 1000 OR id > 150000 AND score > 90) AND NOT name == n3";
+        int expected = 0;
+        for (int i = 0; i < rows; i++) {
+            if ((i < 1000 || i > 150000 && i % 1000 / 10.0 > 90) && i % 7 != 3) {
+                expected++;
+            }
+        }
+        List<List<DataElement>> scanned = df.subsetDataFrame(condition).getDataRows();
+        assertEquals(expected, scanned.size());
+        assertEquals(150901, scanned.get(857).get(0).getValue());
+        // Check if indexes and repeated conditions give the same rows
+        df.createIndex("id");
+        df.createHashIndex("name");
+        assertEquals(scanned, df.subsetDataFrame(condition).getDataRows());
+        assertEquals(scanned, df.subsetDataFrame(condition).getDataRows());
+        // Check if a repeated condition sees changed rows
+        df.getDataRows().get(1).set(2, new StringElement("n3"));
+        assertEquals(expected - 1, df.subsetDataFrame(condition).getDataRows().size());
+    }
+
+    @Test
+    // Test case for aggregations, histograms and comparisons over a double column with nulls and -0.0, which run
+    // through the column kernels
+    public void testDoubleColumnKernels() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("value"));
+        df.setDataTypes(Arrays.asList("double"));
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < 100003; i++) {
+            double value = i % 500 == 0 ? -0.0 : (i * 37 % 1000) / 10.0 - 50;
+            df.addDataRow(Arrays.asList(i % 97 == 0 ? null : new DoubleElement(value)));
+            if (i % 97 != 0) {
+                values.add(value);
+            }
+        }
+        df.setParallelism(1);
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double value : values) {
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        // Check if the statistics and the histogram match a plain pass over the values
+        df.setColumnHeaders(Arrays.asList("value")); // start without cached statistics
+        assertEquals(sum / values.size(), df.averageColumn("value"), 1e-9);
+        assertEquals(min, df.minColumn("value"));
+        assertEquals(max, df.maxColumn("value"));
+        Histogram histogram = df.histogram("value", 7);
+        for (int bin = 0; bin < 7; bin++) {
+            int expected = 0;
+            for (double value : values) {
+                if (value >= histogram.getEdge(bin) && (value < histogram.getEdge(bin + 1) || bin == 6)) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, histogram.getCount(bin));
+        }
+        // Check if comparisons follow Double.compare, which puts -0.0 below 0.0
+        String[] conditions = {"value > 0", "value < 0", "value == 10", "value != 10", "value < -0.5"};
+        for (String condition : conditions) {
+            String[] parts = condition.split(" ");
+            double literal = Double.parseDouble(parts[2]);
+            int expected = 0;
+            for (double value : values) {
+                int comparison = Double.compare(value, literal);
+                if (parts[1].equals(">") ? comparison > 0 : parts[1].equals("<") ? comparison < 0
+                        : parts[1].equals("==") ? comparison == 0 : comparison != 0) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, df.subsetDataFrame(condition).getDataRows().size(), condition);
+        }
+    }
+
+    @Test
+    // Test case for grouped counts, sums, means, minimums and maximums, sequential and in parallel
+    public void testGroupBy() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("city", "grade", "amount", "score"));
+        df.setDataTypes(Arrays.asList("String", "char", "int", "double"));
+        df.addDataRow(Arrays.asList(new StringElement("Oslo"), new CharElement('A'), new IntElement(3), new DoubleElement(1.5)));
+        df.addDataRow(Arrays.asList(new StringElement("Bergen"), new CharElement('B'), new IntElement(5), null));
+        df.addDataRow(Arrays.asList(new StringElement("Oslo"), new CharElement('A'), new IntElement(7), new DoubleElement(2.5)));
+        df.addDataRow(Arrays.asList(null, new CharElement('A'), null, new DoubleElement(4.0)));
+        df.addDataRow(Arrays.asList(new StringElement("Oslo"), new CharElement('B'), new IntElement(1), new DoubleElement(-1.0)));
+
+        // Check if groups come out in order of first occurrence with their aggregates
+        DataFrame grouped = df.groupBy("city").count().sum("amount").mean("score").min("score").max("amount").toDataFrame();
+        assertEquals(Arrays.asList("city", "count", "sum(amount)", "mean(score)", "min(score)", "max(amount)"),
+                grouped.getColumnHeaders());
+        List<List<DataElement>> rows = grouped.getDataRows();
+        assertEquals(3, rows.size());
+        assertEquals(Arrays.asList(new StringElement("Oslo"), new IntElement(3), new DoubleElement(11.0),
+                new DoubleElement(1.0), new DoubleElement(-1.0), new DoubleElement(7.0)), rows.get(0));
+        assertEquals(Arrays.asList(new StringElement("Bergen"), new IntElement(1), new DoubleElement(5.0), null, null,
+                new DoubleElement(5.0)), rows.get(1));
+        assertEquals(Arrays.asList(null, new IntElement(1), new DoubleElement(0.0), new DoubleElement(4.0),
+                new DoubleElement(4.0), null), rows.get(2));
+        assertEquals(4, df.groupBy("city", "grade").count().toDataFrame().getDataRows().size());
+        assertThrows(DataFrameException.class, () -> df.groupBy("city").sum("grade").toDataFrame());
+        assertThrows(DataFrameException.class, () -> df.groupBy("country"));
+
+        // Check if merging per-thread tables gives the same groups as one sequential pass
+        DataFrame large = new DataFrame();
+        large.setColumnHeaders(Arrays.asList("key", "value"));
+        large.setDataTypes(Arrays.asList("int", "double"));
+        for (int i = 0; i < 300000; i++) {
+            large.addDataRow(Arrays.asList(new IntElement(i * 7 % 1000), new DoubleElement(i % 13)));
+        }
+        large.setParallelism(1);
+        List<List<DataElement>> sequential = large.groupBy("key").count().sum("value").max("value").toDataFrame().getDataRows();
+        large.setParallelism(4);
+        assertEquals(sequential, large.groupBy("key").count().sum("value").max("value").toDataFrame().getDataRows());
+        assertEquals(1000, sequential.size());
+        assertEquals(new IntElement(0), sequential.get(0).get(0));
+        assertEquals(new IntElement(300), sequential.get(0).get(1));
+    }
+
+    @Test
+    public void testJoin() throws DataFrameException {
+        DataFrame orders = new DataFrame();
+        orders.setColumnHeaders(Arrays.asList("city", "amount"));
+        orders.setDataTypes(Arrays.asList("String", "int"));
+        orders.addDataRow(Arrays.asList(new StringElement("Oslo"), new IntElement(3)));
+        orders.addDataRow(Arrays.asList(new StringElement("Rome"), new IntElement(5)));
+        orders.addDataRow(Arrays.asList(null, new IntElement(7)));
+        orders.addDataRow(Arrays.asList(new StringElement("Bergen"), new IntElement(9)));
+        DataFrame cities = new DataFrame();
+        cities.setColumnHeaders(Arrays.asList("city", "amount", "country"));
+        cities.setDataTypes(Arrays.asList("String", "double", "String"));
+        cities.addDataRow(Arrays.asList(new StringElement("Bergen"), new DoubleElement(1.0), new StringElement("Norway")));
+        cities.addDataRow(Arrays.asList(new StringElement("Oslo"), new DoubleElement(2.0), new StringElement("Norway")));
+        cities.addDataRow(Arrays.asList(null, new DoubleElement(3.0), new StringElement("Nowhere")));
+        cities.addDataRow(Arrays.asList(new StringElement("Oslo"), new DoubleElement(4.0), null));
+
+        // Check if matches come out in left row order, null keys never match and taken names get a suffix
+        DataFrame inner = orders.innerJoin(cities, "city");
+        assertEquals(Arrays.asList("city", "amount", "amount_right", "country"), inner.getColumnHeaders());
+        assertEquals(Arrays.asList(
+                Arrays.asList(new StringElement("Oslo"), new IntElement(3), new DoubleElement(2.0), new StringElement("Norway")),
+                Arrays.asList(new StringElement("Oslo"), new IntElement(3), new DoubleElement(4.0), null),
+                Arrays.asList(new StringElement("Bergen"), new IntElement(9), new DoubleElement(1.0), new StringElement("Norway"))),
+                inner.getDataRows());
+        List<List<DataElement>> left = orders.leftJoin(cities, "city").getDataRows();
+        assertEquals(5, left.size());
+        assertEquals(Arrays.asList(new StringElement("Rome"), new IntElement(5), null, null), left.get(2));
+        assertEquals(Arrays.asList(null, new IntElement(7), null, null), left.get(3));
+
+        // Check if the build side does not change the result when the left frame is the larger one
+        DataFrame countries = cities.innerJoin(orders, "city");
+        assertEquals(3, countries.getDataRows().size());
+        assertEquals(new DoubleElement(1.0), countries.getDataRows().get(0).get(1));
+        assertEquals(4, cities.leftJoin(orders, "city").getDataRows().size());
+        assertThrows(DataFrameException.class, () -> orders.innerJoin(cities, "amount"));
+        assertThrows(DataFrameException.class, () -> orders.innerJoin(cities, "country"));
+
+        // Check if the parallel probe matches the sequential one
+        DataFrame large = new DataFrame();
+        large.setColumnHeaders(Arrays.asList("key", "value"));
+        large.setDataTypes(Arrays.asList("int", "int"));
+        for (int i = 0; i < 200000; i++) {
+            large.addDataRow(Arrays.asList(new IntElement(i % 5000), new IntElement(i)));
+        }
+        DataFrame small = new DataFrame();
+        small.setColumnHeaders(Arrays.asList("key", "label"));
+        small.setDataTypes(Arrays.asList("int", "char"));
+        for (int i = 0; i < 5000; i += 2) {
+            small.addDataRow(Arrays.asList(new IntElement(i), new CharElement((char) ('a' + i % 26))));
+        }
+        large.setParallelism(1);
+        List<List<DataElement>> sequential = large.leftJoin(small, "key").getDataRows();
+        large.setParallelism(4);
+        assertEquals(sequential, large.leftJoin(small, "key").getDataRows());
+        assertEquals(200000, sequential.size());
+        assertEquals(100000, large.innerJoin(small, "key").getDataRows().size());
+    }
+
+    @Test
+    public void testSortBy() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("city", "grade", "amount", "score"));
+        df.setDataTypes(Arrays.asList("String", "char", "int", "double"));
+        df.addDataRow(Arrays.asList(new StringElement("Oslo"), new CharElement('B'), new IntElement(3), new DoubleElement(1.5)));
+        df.addDataRow(Arrays.asList(new StringElement("Bergen"), new CharElement('A'), new IntElement(-5), null));
+        df.addDataRow(Arrays.asList(null, new CharElement('B'), new IntElement(7), new DoubleElement(-2.5)));
+        df.addDataRow(Arrays.asList(new StringElement("Oslo"), new CharElement('A'), null, new DoubleElement(4.0)));
+        df.addDataRow(Arrays.asList(new StringElement("Bergen"), new CharElement('B'), new IntElement(1), new DoubleElement(1.5)));
+
+        // Check if later columns break ties, descending columns reverse and nulls go last either way
+        DataFrame sorted = df.sortBy(Arrays.asList("city", "amount"), Arrays.asList(true, false));
+        List<List<DataElement>> rows = sorted.getDataRows();
+        assertEquals(new IntElement(1), rows.get(0).get(2));
+        assertEquals(new IntElement(-5), rows.get(1).get(2));
+        assertEquals(new IntElement(3), rows.get(2).get(2));
+        assertNull(rows.get(3).get(2));
+        assertNull(rows.get(4).get(0));
+        List<List<DataElement>> byScore = df.sortBy(Arrays.asList("score", "grade"), Arrays.asList(false, true)).getDataRows();
+        assertEquals(Arrays.asList(new DoubleElement(4.0), new DoubleElement(1.5), new DoubleElement(1.5),
+                new DoubleElement(-2.5), null), Arrays.asList(byScore.get(0).get(3), byScore.get(1).get(3),
+                byScore.get(2).get(3), byScore.get(3).get(3), byScore.get(4).get(3)));
+        assertEquals(new StringElement("Oslo"), byScore.get(1).get(0));
+        assertThrows(DataFrameException.class, () -> df.sortBy(Arrays.asList("country"), Arrays.asList(true)));
+        assertThrows(DataFrameException.class, () -> df.sortBy(Arrays.asList("city"), Arrays.asList(true, false)));
+
+        // Check if sorting in place gives the rows of the sorted view
+        List<List<DataElement>> expected = new ArrayList<>(sorted.getDataRows());
+        df.sort(Arrays.asList("city", "amount"), Arrays.asList(true, false));
+        assertEquals(expected, new ArrayList<>(df.getDataRows()));
+
+        // Check if sorting parts in parallel gives the sequential order
+        DataFrame large = new DataFrame();
+        large.setColumnHeaders(Arrays.asList("key", "value"));
+        large.setDataTypes(Arrays.asList("int", "double"));
+        for (int i = 0; i < 300000; i++) {
+            large.addDataRow(Arrays.asList(new IntElement(i * 7 % 1000), new DoubleElement((i * 13 % 997) / 10.0)));
+        }
+        large.setParallelism(1);
+        List<List<DataElement>> sequential = large.sortBy(Arrays.asList("value", "key"), Arrays.asList(false, true)).getDataRows();
+        large.setParallelism(4);
+        assertEquals(sequential, large.sortBy(Arrays.asList("value", "key"), Arrays.asList(false, true)).getDataRows());
+        assertEquals(new DoubleElement(99.6), sequential.get(0).get(1));
+        assertEquals(new DoubleElement(0.0), sequential.get(299999).get(1));
+    }
+
+    @Test
+    public void testTopN() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("city", "amount"));
+        df.setDataTypes(Arrays.asList("String", "int"));
+        df.addDataRow(Arrays.asList(new StringElement("Oslo"), new IntElement(3)));
+        df.addDataRow(Arrays.asList(new StringElement("Bergen"), new IntElement(9)));
+        df.addDataRow(Arrays.asList(new StringElement("Rome"), null));
+        df.addDataRow(Arrays.asList(new StringElement("Oslo"), new IntElement(9)));
+        df.addDataRow(Arrays.asList(new StringElement("Paris"), new IntElement(-4)));
+
+        // Check if the top rows come out best first with ties in row order, and nulls only when rows run out
+        List<List<DataElement>> top = df.topN("amount", 3, false).getDataRows();
+        assertEquals(Arrays.asList(new StringElement("Bergen"), new StringElement("Oslo"), new StringElement("Oslo")),
+                Arrays.asList(top.get(0).get(0), top.get(1).get(0), top.get(2).get(0)));
+        assertEquals(new IntElement(3), top.get(2).get(1));
+        assertEquals(new StringElement("Bergen"), df.topN("city", 1, true).getDataRows().get(0).get(0));
+        List<List<DataElement>> all = df.topN("amount", 10, true).getDataRows();
+        assertEquals(5, all.size());
+        assertNull(all.get(4).get(1));
+        assertEquals(0, df.topN("amount", 0, true).getDataRows().size());
+        assertThrows(DataFrameException.class, () -> df.topN("amount", -1, true));
+
+        // Check if the filtered variant only ranks matching rows
+        List<List<DataElement>> filtered = df.topN("city == Oslo OR city == Paris", "amount", 2, true).getDataRows();
+        assertEquals(Arrays.asList(new IntElement(-4), new IntElement(3)), Arrays.asList(filtered.get(0).get(1), filtered.get(1).get(1)));
+
+        // Check if per-thread heaps give the first rows of a full sort
+        DataFrame large = new DataFrame();
+        large.setColumnHeaders(Arrays.asList("value"));
+        large.setDataTypes(Arrays.asList("double"));
+        for (int i = 0; i < 300000; i++) {
+            large.addDataRow(Arrays.asList(new DoubleElement((i * 7919L % 100003) / 3.0)));
+        }
+        large.setParallelism(4);
+        assertEquals(large.sortBy(Arrays.asList("value"), Arrays.asList(false)).getDataRows().subList(0, 100),
+                large.topN("value", 100, false).getDataRows());
+    }
+
+    @Test
+    public void testDescribe() throws DataFrameException {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("amount", "city"));
+        df.setDataTypes(Arrays.asList("int", "String"));
+        for (int i = 100; i >= 1; i--) {
+            df.addDataRow(Arrays.asList(new IntElement(i), new StringElement("Oslo")));
+        }
+        df.addDataRow(Arrays.asList(null, new StringElement("Oslo")));
+
+        // Check if small columns are described exactly, skipping nulls
+        Map<String, Double> description = df.describe("amount");
+        assertEquals(Arrays.asList("count", "mean", "variance", "stddev", "min", "max", "median", "p95", "p99"),
+                new ArrayList<>(description.keySet()));
+        assertEquals(100.0, description.get("count"));
+        assertEquals(50.5, description.get("mean"), 1e-9);
+        assertEquals(841.6666666666666, description.get("variance"), 1e-9);
+        assertEquals(Math.sqrt(841.6666666666666), description.get("stddev"), 1e-9);
+        assertEquals(1.0, description.get("min"));
+        assertEquals(100.0, description.get("max"));
+        assertEquals(50.0, description.get("median"));
+        assertEquals(95.0, description.get("p95"));
+        assertEquals(99.0, description.get("p99"));
+        assertThrows(DataFrameException.class, () -> df.describe("city"));
+
+        // Check if sketched percentiles of a large column stay within 1% of the exact ranks, at any parallelism
+        DataFrame large = new DataFrame();
+        large.setColumnHeaders(Arrays.asList("value"));
+        large.setDataTypes(Arrays.asList("double"));
+        for (int i = 0; i < 500000; i++) {
+            large.addDataRow(Arrays.asList(new DoubleElement(i * 7919L % 500000)));
+        }
+        large.setParallelism(1);
+        Map<String, Double> sequential = large.describe("value");
+        large.setParallelism(4);
+        assertEquals(sequential, large.describe("value"));
+        assertEquals(249999.5, sequential.get("mean"), 1e-6);
+        assertEquals(250000, sequential.get("median"), 5000);
+        assertEquals(475000, sequential.get("p95"), 5000);
+        assertEquals(495000, sequential.get("p99"), 5000);
+    }
+
+    @Test
+    public void testApproxDistinct() throws Exception {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "score", "grade", "name"));
+        df.setDataTypes(Arrays.asList("int", "double", "char", "String"));
+        for (int i = 0; i < 200000; i++) {
+            df.addDataRow(Arrays.asList(new IntElement(i), new DoubleElement(i % 5000 / 4.0),
+                    new CharElement((char) ('A' + i % 5)), new StringElement("n" + i % 300)));
+        }
+        df.addDataRow(Arrays.asList(null, null, null, null));
+        DataFrame withoutNulls = df.subsetDataFrame("grade != Z");
+
+        // Check if estimates stay within 3% for every type and nulls are not counted
+        assertEquals(200000, df.approxDistinct("id"), 6000);
+        assertEquals(5000, df.approxDistinct("score"), 150);
+        assertEquals(5, df.approxDistinct("grade"));
+        assertEquals(300, df.approxDistinct("name"), 6);
+        assertEquals(200000, df.approxDistinct("id", 18), 2000);
+        assertThrows(DataFrameException.class, () -> df.approxDistinct("id", 19));
+        assertThrows(DataFrameException.class, () -> df.approxDistinct("country"));
+
+        // Check if the sketches made during import give the estimates of a fresh pass, also at lower precision
+        File file = File.createTempFile("test", ".csv");
+        withoutNulls.exportToCSV(file.getAbsolutePath());
+        DataFrame imported = DataFrame.fromCSV(file.getAbsolutePath(), false, true);
+        long fromImport = imported.approxDistinct("id");
+        long fromImportLow = imported.approxDistinct("id", 10);
+        imported.setParallelism(1);
+        DataFrame copy = imported.materialize();
+        assertEquals(copy.approxDistinct("id"), fromImport);
+        assertEquals(copy.approxDistinct("id", 10), fromImportLow);
+        assertEquals(df.approxDistinct("name"), imported.approxDistinct("name"));
+
+        // Check if an import without sketches gives the same estimates on the first call
+        DataFrame unsketched = DataFrame.fromCSV(file.getAbsolutePath(), false);
+        assertEquals(fromImport, unsketched.approxDistinct("id"));
+        assertEquals(fromImportLow, unsketched.approxDistinct("id", 10));
+        file.delete();
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        DataFrame df = new DataFrame();
+        df.setColumnHeaders(Arrays.asList("id", "value", "name"));
+        df.setDataTypes(Arrays.asList("int", "double", "String"));
+        df.addDataRow(Arrays.asList(new IntElement(0), new DoubleElement(0.0), new StringElement("n0")));
+
+        // Check if a snapshot keeps its rows through later changes and refuses changes itself
+        DataFrame first = df.snapshot();
+        df.getDataRows().get(0).set(1, new DoubleElement(9.0));
+        assertEquals(new DoubleElement(0.0), first.getDataRows().get(0).get(1));
+        assertEquals(new DoubleElement(9.0), df.getDataRows().get(0).get(1));
+        assertThrows(UnsupportedOperationException.class,
+                () -> first.addDataRow(Arrays.asList(new IntElement(1), new DoubleElement(0.5), new StringElement("n1"))));
+        assertThrows(UnsupportedOperationException.class, () -> first.getDataRows().get(0).set(0, new IntElement(5)));
+        df.getDataRows().get(0).set(1, new DoubleElement(0.0));
+        assertEquals(0.0, df.averageColumn("value")); // cached statistics are carried into snapshots
+
+        // Check if readers see every appended row up to the snapshot and none after it while a writer appends
+        // single rows and then batches of 10, which a snapshot holds entirely or not at all
+        int singleRows = 20000;
+        int totalRows = 40000;
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Future<?> writer = executor.submit(() -> {
+            try {
+                for (int i = 1; i < singleRows; i++) {
+                    df.addDataRow(Arrays.asList(new IntElement(i), new DoubleElement(i / 2.0), new StringElement("n" + i)));
+                }
+                for (int i = singleRows; i < totalRows; i += 10) {
+                    List<List<DataElement>> batch = new ArrayList<>();
+                    for (int j = i; j < i + 10; j++) {
+                        batch.add(Arrays.asList(new IntElement(j), new DoubleElement(j / 2.0), new StringElement("n" + j)));
+                    }
+                    df.addDataRows(batch);
+                }
+            } finally {
+                done.set(true);
+            }
+        });
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int reader = 0; reader < 3; reader++) {
+            readers.add(executor.submit(() -> {
+                int previous = 0;
+                int snapshots = 0;
+                boolean finished;
+                do {
+                    finished = done.get(); // one more snapshot after the writer stops, even if it failed
+                    DataFrame snapshot = df.snapshot();
+                    List<List<DataElement>> rows = snapshot.getDataRows();
+                    int count = rows.size();
+                    assertTrue(count >= previous);
+                    assertTrue(count <= singleRows || (count - singleRows) % 10 == 0);
+                    assertEquals(new IntElement(count - 1), rows.get(count - 1).get(0));
+                    assertEquals(new StringElement("n" + (count - 1)), rows.get(count - 1).get(2));
+                    assertEquals(new IntElement(count / 2), rows.get(count / 2).get(0));
+                    assertEquals((count - 1) / 4.0, snapshot.averageColumn("value"), 1e-9);
+                    assertEquals((count - 1) / 2.0, snapshot.maxColumn("value"));
+                    assertEquals(Math.min(count, 5), snapshot.subsetDataFrame("id > " + (count - 6)).getDataRows().size());
+                    assertEquals(count, rows.size()); // the snapshot never grows
+                    previous = count;
+                    snapshots++;
+                } while (!finished);
+                return snapshots;
+            }));
+        }
+        try {
+            writer.get(60, TimeUnit.SECONDS);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(60, TimeUnit.SECONDS) > 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(totalRows, df.getDataRows().size());
+        assertEquals((totalRows - 1) / 4.0, df.averageColumn("value"), 1e-9);
+    }
+}
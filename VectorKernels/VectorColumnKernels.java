@@ -0,0 +1,129 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// ColumnKernels with the array loops written against the incubating Vector API, so they run on SIMD registers.
+// Compile and run with --add-modules jdk.incubator.vector; ColumnKernels only loads this class when the module is
+// present. Each loop covers whole vectors and hands the remaining tail to the scalar loop.
+class VectorColumnKernels extends ColumnKernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    // Adding and subtracting 2^52 rounds a double in [0, 2^52) to an integer
+    private static final double FLOOR_SHIFT = 0x1p52;
+
+    // Compensated sums, sums of squares, minimum and maximum kept per lane and merged lane by lane at the end.
+    @Override
+    void stats(double[] values, int from, int to, ColumnStats stats) {
+        int end = from + SPECIES.loopBound(to - from);
+        if (end == from) {
+            super.stats(values, from, to, stats);
+            return;
+        }
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        DoubleVector compensation = DoubleVector.zero(SPECIES);
+        DoubleVector squares = DoubleVector.zero(SPECIES);
+        DoubleVector squaresCompensation = DoubleVector.zero(SPECIES);
+        DoubleVector min = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector max = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        for (int i = from; i < end; i += SPECIES.length()) {
+            DoubleVector value = DoubleVector.fromArray(SPECIES, values, i);
+            DoubleVector total = sum.add(value);
+            compensation = compensation.add(neumaier(sum, value, total));
+            sum = total;
+            DoubleVector square = value.mul(value);
+            total = squares.add(square);
+            squaresCompensation = squaresCompensation.add(neumaier(squares, square, total));
+            squares = total;
+            min = min.lanewise(VectorOperators.MIN, value);
+            max = max.lanewise(VectorOperators.MAX, value);
+        }
+        for (int lane = 0; lane < SPECIES.length(); lane++) {
+            stats.merge(lane == 0 ? end - from : 0, sum.lane(lane), compensation.lane(lane), squares.lane(lane),
+                    squaresCompensation.lane(lane), min.lane(lane), max.lane(lane));
+        }
+        super.stats(values, end, to, stats);
+    }
+
+    // Rounding error of total = sum + value, the term ColumnStats adds to its compensation.
+    private static DoubleVector neumaier(DoubleVector sum, DoubleVector value, DoubleVector total) {
+        VectorMask<Double> sumLarger = sum.abs().compare(VectorOperators.GE, value.abs());
+        DoubleVector viaSum = sum.sub(total).add(value);
+        DoubleVector viaValue = value.sub(total).add(sum);
+        return viaValue.blend(viaSum, sumLarger);
+    }
+
+    // Bins computed a vector at a time the same way as Histogram.binOf, including its edge correction; only the
+    // count increments stay scalar. Bin numbers stay doubles, rounded down by adding and subtracting 2^52,
+    // since double to long lane conversions are not intrinsified everywhere.
+    @Override
+    void histogram(double[] values, int from, int to, Histogram histogram) {
+        int end = from + SPECIES.loopBound(to - from);
+        double width = histogram.getWidth();
+        if (width == 0 || end == from) {
+            super.histogram(values, from, to, histogram);
+            return;
+        }
+        double min = histogram.getMin();
+        double max = histogram.getMax();
+        double lastBin = histogram.getBinCount() - 1;
+        double[] bins = new double[SPECIES.length()];
+        for (int i = from; i < end; i += SPECIES.length()) {
+            DoubleVector value = DoubleVector.fromArray(SPECIES, values, i);
+            long inRange = value.compare(VectorOperators.GE, min).and(value.compare(VectorOperators.LE, max)).toLong();
+            if (inRange == 0) {
+                continue;
+            }
+            DoubleVector position = value.sub(min).div(width).min(lastBin);
+            DoubleVector bin = position.add(FLOOR_SHIFT).sub(FLOOR_SHIFT);
+            bin = bin.sub(1, bin.compare(VectorOperators.GT, position));
+            VectorMask<Double> below = bin.compare(VectorOperators.GT, 0)
+                    .and(value.compare(VectorOperators.LT, bin.mul(width).add(min)));
+            bin = bin.sub(1, below);
+            VectorMask<Double> above = bin.compare(VectorOperators.LT, lastBin)
+                    .and(value.compare(VectorOperators.GE, bin.add(1).mul(width).add(min)));
+            bin.add(1, above).intoArray(bins, 0);
+            for (long lanes = inRange; lanes != 0; lanes &= lanes - 1) {
+                histogram.addToBin((int) bins[Long.numberOfTrailingZeros(lanes)]);
+            }
+        }
+        super.histogram(values, end, to, histogram);
+    }
+
+    // One mask per vector, shifted into place. Vectors start a multiple of the lane count after from, and the
+    // lane count divides 64, so a mask never straddles two words.
+    @Override
+    void compare(double[] values, int from, int to, Predicate.Operator operator, double literal, long[] words) {
+        // Double.compare orders -0.0 below 0.0 and NaN above everything, which vector comparisons do not
+        if (literal == 0 || Double.isNaN(literal)) {
+            super.compare(values, from, to, operator, literal, words);
+            return;
+        }
+        int end = from + SPECIES.loopBound(to - from);
+        for (int i = from; i < end; i += SPECIES.length()) {
+            DoubleVector value = DoubleVector.fromArray(SPECIES, values, i);
+            VectorMask<Double> matches;
+            switch (operator) {
+                case LESS:
+                    matches = value.compare(VectorOperators.LT, literal);
+                    break;
+                case GREATER:
+                    matches = value.compare(VectorOperators.GT, literal).or(value.test(VectorOperators.IS_NAN));
+                    break;
+                case EQUAL:
+                    matches = value.compare(VectorOperators.EQ, literal);
+                    break;
+                default:
+                    matches = value.compare(VectorOperators.NE, literal);
+                    break;
+            }
+            int bit = i - from;
+            words[bit >>> 6] |= matches.toLong() << bit;
+        }
+        for (int i = end; i < to; i++) {
+            if (operator.accept(Double.compare(values[i], literal))) {
+                int bit = i - from;
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Column aggregations on the double column "value" of a loaded DataFrame, and describe on it and on the int
+// column "id". approxDistinct drops the cached sketches first, so it makes a fresh precision-16 pass over "id"
+// every time.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class AggregationBenchmark {
+    @Benchmark
+    public double averageDouble(FrameState state) {
+        return Frames.averageColumn(state.frame, "value");
+    }
+
+    @Benchmark
+    public double minColumn(FrameState state) {
+        return Frames.minColumn(state.frame, "value");
+    }
+
+    @Benchmark
+    public double maxColumn(FrameState state) {
+        return Frames.maxColumn(state.frame, "value");
+    }
+
+    @Benchmark
+    public Map<?, ?> frequencyTable(FrameState state) {
+        return Frames.frequencyTable(state.frame, "value", 10);
+    }
+
+    @Benchmark
+    public Map<?, ?> describeDouble(FrameState state) {
+        return Frames.describe(state.frame, "value");
+    }
+
+    @Benchmark
+    public Map<?, ?> describeInt(FrameState state) {
+        return Frames.describe(state.frame, "id");
+    }
+
+    @Benchmark
+    public long approxDistinct(FrameState state) {
+        Frames.invalidateCaches(state.frame);
+        return Frames.approxDistinct(state.frame, "id", 16);
+    }
+}
@@ -0,0 +1,104 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.SplittableRandom;
+
+// Writes deterministic synthetic CSV files in the DataFrame format (header line, types line, data lines).
+// The first four columns are always id (int), value (double), grade (char) and label (String); wider layouts
+// repeat the four types in extra columns. Files are cached in the temp directory and reused between runs.
+public final class DataGenerator {
+    private static final long SEED = 20240601L;
+    private static final String[] TYPES = {"int", "double", "char", "String"};
+    private static final String[] BASE_HEADERS = {"id", "value", "grade", "label"};
+
+    private DataGenerator() {
+    }
+
+    // Path of the CSV with the given shape, generating it first if it is not cached yet.
+    public static Path csv(int rows, int columns) {
+        Path directory = Paths.get(System.getProperty("java.io.tmpdir"), "dataframe-benchmarks");
+        Path file = directory.resolve("rows-" + rows + "-columns-" + columns + ".csv");
+        if (Files.exists(file)) {
+            return file;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path partial = Files.createTempFile(directory, "partial", ".csv");
+            write(partial, rows, columns);
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void write(Path file, int rows, int columns) throws IOException {
+        if (columns < BASE_HEADERS.length) {
+            throw new IllegalArgumentException("At least " + BASE_HEADERS.length + " columns are required.");
+        }
+        SplittableRandom random = new SplittableRandom(SEED);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder headers = new StringBuilder();
+            StringBuilder types = new StringBuilder();
+            for (int i = 0; i < columns; i++) {
+                if (i > 0) {
+                    headers.append(',');
+                    types.append(',');
+                }
+                headers.append(i < BASE_HEADERS.length ? BASE_HEADERS[i] : "c" + i);
+                types.append(TYPES[i % TYPES.length]);
+            }
+            writer.write(headers.toString());
+            writer.newLine();
+            writer.write(types.toString());
+            writer.newLine();
+
+            StringBuilder line = new StringBuilder();
+            for (int row = 0; row < rows; row++) {
+                line.setLength(0);
+                for (int i = 0; i < columns; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    appendValue(line, i, row, random);
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+    }
+
+    // id counts rows; doubles are uniform in [0, 1000) with two decimals; chars are A-E; labels come from
+    // 1000 distinct values so string columns have realistic repetition.
+    private static void appendValue(StringBuilder line, int column, int row, SplittableRandom random) {
+        switch (column % TYPES.length) {
+            case 0:
+                line.append(column == 0 ? row : random.nextInt(1_000_000));
+                break;
+            case 1:
+                line.append(random.nextInt(100_000) / 100.0);
+                break;
+            case 2:
+                line.append((char) ('A' + random.nextInt(5)));
+                break;
+            default:
+                line.append("item").append(random.nextInt(1000));
+                break;
+        }
+    }
+
+    // Generate files ahead of a run: DataGenerator <rows> <columns> [<rows> <columns> ...]
+    public static void main(String[] args) {
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            Path file = csv(Integer.parseInt(args[i]), Integer.parseInt(args[i + 1]));
+            System.out.println(file);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// A generated CSV and the DataFrame imported from it, shared by every benchmark that works on a loaded frame.
+@State(Scope.Benchmark)
+public class FrameState {
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"4", "16"})
+    public int columns;
+
+    public String csvPath;
+    public Object frame;
+
+    @Setup(Level.Trial)
+    public void load() {
+        csvPath = DataGenerator.csv(rows, columns).toString();
+        frame = Frames.fromCSV(csvPath, false);
+    }
+}
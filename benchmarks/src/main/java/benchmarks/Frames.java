@@ -0,0 +1,281 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// The DataFrame classes live in the unnamed package, which named packages cannot import, while JMH refuses
+// benchmarks in the unnamed package. Calls therefore go through method handles resolved once at class load;
+// the JIT inlines calls through static final handles, so they cost about the same as direct calls.
+final class Frames {
+    private static final Class<?> DATA_FRAME = load("DataFrame");
+    private static final Class<?> MENU = load("DataFrameMenu");
+
+    private static final MethodHandle FROM_CSV = find(DATA_FRAME, "fromCSV", true,
+            MethodType.methodType(DATA_FRAME, String.class, boolean.class));
+    private static final MethodHandle NEW_MENU = constructor(MENU);
+    private static final MethodHandle IMPORT_CSV = find(MENU, "importCSV", false,
+            MethodType.methodType(void.class, String.class, boolean.class));
+    private static final MethodHandle EXPORT_TO_CSV = find(DATA_FRAME, "exportToCSV", false,
+            MethodType.methodType(void.class, String.class));
+    private static final MethodHandle AVERAGE = find(DATA_FRAME, "averageColumn", false,
+            MethodType.methodType(double.class, String.class));
+    private static final MethodHandle MIN = find(DATA_FRAME, "minColumn", false,
+            MethodType.methodType(double.class, String.class));
+    private static final MethodHandle MAX = find(DATA_FRAME, "maxColumn", false,
+            MethodType.methodType(double.class, String.class));
+    private static final MethodHandle FREQUENCY_TABLE = find(DATA_FRAME, "frequencyTable", false,
+            MethodType.methodType(Map.class, String.class, int.class));
+    private static final MethodHandle SUBSET = find(DATA_FRAME, "subsetDataFrame", false,
+            MethodType.methodType(DATA_FRAME, String.class));
+    private static final MethodHandle HISTOGRAM = find(DATA_FRAME, "histogram", false,
+            MethodType.methodType(load("Histogram"), String.class, int.class, double.class, double.class));
+    private static final MethodHandle GET_DATA_TYPES = find(DATA_FRAME, "getDataTypes", false,
+            MethodType.methodType(List.class));
+    private static final MethodHandle SET_DATA_TYPES = find(DATA_FRAME, "setDataTypes", false,
+            MethodType.methodType(void.class, List.class));
+    private static final Class<?> GROUP_BY = load("GroupBy");
+    private static final MethodHandle GROUP_BY_KEYS = find(DATA_FRAME, "groupBy", false,
+            MethodType.methodType(GROUP_BY, String[].class));
+    private static final MethodHandle GROUP_COUNT = find(GROUP_BY, "count", false, MethodType.methodType(GROUP_BY));
+    private static final MethodHandle GROUP_MEAN = find(GROUP_BY, "mean", false,
+            MethodType.methodType(GROUP_BY, String.class));
+    private static final MethodHandle GROUP_TO_DATA_FRAME = find(GROUP_BY, "toDataFrame", false,
+            MethodType.methodType(DATA_FRAME));
+    private static final MethodHandle INNER_JOIN = find(DATA_FRAME, "innerJoin", false,
+            MethodType.methodType(DATA_FRAME, DATA_FRAME, String[].class));
+    private static final MethodHandle LEFT_JOIN = find(DATA_FRAME, "leftJoin", false,
+            MethodType.methodType(DATA_FRAME, DATA_FRAME, String[].class));
+    private static final MethodHandle SORT_BY = find(DATA_FRAME, "sortBy", false,
+            MethodType.methodType(DATA_FRAME, List.class, List.class));
+    private static final MethodHandle TOP_N = find(DATA_FRAME, "topN", false,
+            MethodType.methodType(DATA_FRAME, String.class, int.class, boolean.class));
+    private static final MethodHandle FILTERED_TOP_N = find(DATA_FRAME, "topN", false,
+            MethodType.methodType(DATA_FRAME, String.class, String.class, int.class, boolean.class));
+    private static final MethodHandle DESCRIBE = find(DATA_FRAME, "describe", false,
+            MethodType.methodType(LinkedHashMap.class, String.class));
+    private static final MethodHandle APPROX_DISTINCT = find(DATA_FRAME, "approxDistinct", false,
+            MethodType.methodType(long.class, String.class, int.class));
+    private static final MethodHandle CREATE_INDEX = find(DATA_FRAME, "createIndex", false,
+            MethodType.methodType(void.class, String.class));
+    private static final MethodHandle CREATE_HASH_INDEX = find(DATA_FRAME, "createHashIndex", false,
+            MethodType.methodType(void.class, String.class));
+    private static final MethodHandle SNAPSHOT = find(DATA_FRAME, "snapshot", false, MethodType.methodType(DATA_FRAME));
+    private static final MethodHandle MATERIALIZE = find(DATA_FRAME, "materialize", false, MethodType.methodType(DATA_FRAME));
+
+    private Frames() {
+    }
+
+    static Object fromCSV(String path, boolean memoryMapped) {
+        try {
+            return FROM_CSV.invoke(path, memoryMapped);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object newMenu() {
+        try {
+            return NEW_MENU.invoke();
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static void importCSV(Object menu, String path, boolean memoryMapped) {
+        try {
+            IMPORT_CSV.invoke(menu, path, memoryMapped);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static void exportToCSV(Object frame, String path) {
+        try {
+            EXPORT_TO_CSV.invoke(frame, path);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static double averageColumn(Object frame, String column) {
+        try {
+            return (double) AVERAGE.invoke(frame, column);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Map<?, ?> describe(Object frame, String column) {
+        try {
+            return (Map<?, ?>) DESCRIBE.invoke(frame, column);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static long approxDistinct(Object frame, String column, int precision) {
+        try {
+            return (long) APPROX_DISTINCT.invoke(frame, column, precision);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static double minColumn(Object frame, String column) {
+        try {
+            return (double) MIN.invoke(frame, column);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static double maxColumn(Object frame, String column) {
+        try {
+            return (double) MAX.invoke(frame, column);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Map<?, ?> frequencyTable(Object frame, String column, int intervals) {
+        try {
+            return (Map<?, ?>) FREQUENCY_TABLE.invoke(frame, column, intervals);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object histogram(Object frame, String column, int intervals, double min, double max) {
+        try {
+            return HISTOGRAM.invoke(frame, column, intervals, min, max);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    // Set the data types to what they already are, which drops cached statistics and condition results.
+    static void invalidateCaches(Object frame) {
+        try {
+            SET_DATA_TYPES.invoke(frame, (List<?>) GET_DATA_TYPES.invoke(frame));
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object subsetDataFrame(Object frame, String condition) {
+        try {
+            return SUBSET.invoke(frame, condition);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    // groupBy(keys...).count().mean(valueColumn).toDataFrame()
+    static Object groupByCountMean(Object frame, String valueColumn, String... keys) {
+        try {
+            Object groupBy = GROUP_BY_KEYS.invoke(frame, keys);
+            return GROUP_TO_DATA_FRAME.invoke(GROUP_MEAN.invoke(GROUP_COUNT.invoke(groupBy), valueColumn));
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    // innerJoin(right, keys...), or leftJoin when left is set
+    static Object join(Object frame, Object right, boolean left, String... keys) {
+        try {
+            return left ? LEFT_JOIN.invoke(frame, right, keys) : INNER_JOIN.invoke(frame, right, keys);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    // sortBy(columns, ascending)
+    static Object sortBy(Object frame, List<String> columns, List<Boolean> ascending) {
+        try {
+            return SORT_BY.invoke(frame, columns, ascending);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    // topN(column, n, ascending), or topN(condition, column, n, ascending) when condition is set
+    static Object topN(Object frame, String condition, String column, int n, boolean ascending) {
+        try {
+            return condition == null ? TOP_N.invoke(frame, column, n, ascending)
+                    : FILTERED_TOP_N.invoke(frame, condition, column, n, ascending);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object snapshot(Object frame) {
+        try {
+            return SNAPSHOT.invoke(frame);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static Object materialize(Object frame) {
+        try {
+            return MATERIALIZE.invoke(frame);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static void createIndex(Object frame, String column) {
+        try {
+            CREATE_INDEX.invoke(frame, column);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    static void createHashIndex(Object frame, String column) {
+        try {
+            CREATE_HASH_INDEX.invoke(frame, column);
+        } catch (Throwable e) {
+            throw failure(e);
+        }
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("DataFrame class not on the benchmark class path: " + name, e);
+        }
+    }
+
+    private static MethodHandle find(Class<?> owner, String name, boolean isStatic, MethodType type) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            return isStatic ? lookup.findStatic(owner, name, type) : lookup.findVirtual(owner, name, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing DataFrame method: " + name, e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> owner) {
+        try {
+            return MethodHandles.publicLookup().findConstructor(owner, MethodType.methodType(void.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Missing constructor: " + owner.getName(), e);
+        }
+    }
+
+    private static RuntimeException failure(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new IllegalStateException(e.getMessage(), e);
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// groupBy with a count and a mean of "value", keyed by few groups (grade), a thousand dictionary-encoded groups
+// (label), one group per row (id) and a two-column key.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class GroupByBenchmark {
+    @Benchmark
+    public Object fewGroups(FrameState state) {
+        return Frames.groupByCountMean(state.frame, "value", "grade");
+    }
+
+    @Benchmark
+    public Object stringGroups(FrameState state) {
+        return Frames.groupByCountMean(state.frame, "value", "label");
+    }
+
+    @Benchmark
+    public Object uniqueGroups(FrameState state) {
+        return Frames.groupByCountMean(state.frame, "value", "id");
+    }
+
+    @Benchmark
+    public Object compositeKey(FrameState state) {
+        return Frames.groupByCountMean(state.frame, "value", "grade", "label");
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// CSV import through DataFrame.fromCSV (heap and memory-mapped reads) and through the menu.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ImportBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"4", "16"})
+    public int columns;
+
+    private String csvPath;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        csvPath = DataGenerator.csv(rows, columns).toString();
+    }
+
+    @Benchmark
+    public Object fromCSV() {
+        return Frames.fromCSV(csvPath, false);
+    }
+
+    @Benchmark
+    public Object fromCSVMemoryMapped() {
+        return Frames.fromCSV(csvPath, true);
+    }
+
+    // A fresh menu per call so imported frames do not pile up in its list.
+    @Benchmark
+    public Object menuImportCSV() {
+        Object menu = Frames.newMenu();
+        Frames.importCSV(menu, csvPath, false);
+        return menu;
+    }
+}
@@ -0,0 +1,14 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+// A loaded DataFrame with sorted indexes on the "value" and "id" columns and a hash index on "label".
+public class IndexedFrameState extends FrameState {
+    @Setup(Level.Trial)
+    public void index() {
+        Frames.createIndex(frame, "value");
+        Frames.createIndex(frame, "id");
+        Frames.createHashIndex(frame, "label");
+    }
+}
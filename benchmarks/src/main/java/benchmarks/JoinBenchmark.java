@@ -0,0 +1,36 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Joins of the loaded frame against small per-key tables made with groupBy (the label and grade counts), so
+// the build side is small and the probe covers every row, and against a copy of itself on id, where both
+// sides are the full frame.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class JoinBenchmark {
+    @Benchmark
+    public Object stringKey(JoinState state) {
+        return Frames.join(state.frame, state.labels, false, "label");
+    }
+
+    @Benchmark
+    public Object charKey(JoinState state) {
+        return Frames.join(state.frame, state.grades, true, "grade");
+    }
+
+    @Benchmark
+    public Object selfJoin(JoinState state) {
+        return Frames.join(state.frame, state.copy, false, "id");
+    }
+}
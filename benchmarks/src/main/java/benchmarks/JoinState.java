@@ -0,0 +1,19 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+// A loaded DataFrame with the tables it is joined against: its row count and mean value per label and per
+// grade, and a second import of the same CSV.
+public class JoinState extends FrameState {
+    public Object labels;
+    public Object grades;
+    public Object copy;
+
+    @Setup(Level.Trial)
+    public void tables() {
+        labels = Frames.groupByCountMean(frame, "value", "label");
+        grades = Frames.groupByCountMean(frame, "value", "grade");
+        copy = Frames.fromCSV(csvPath, false);
+    }
+}
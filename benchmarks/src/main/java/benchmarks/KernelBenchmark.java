@@ -0,0 +1,49 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The double column kernels behind aggregations, histograms and comparisons, once per kernel choice: the per-row
+// Column loops (Off), the scalar array loops (Scalar) and the Vector API loops (Vector). Every call first drops
+// the cached statistics and condition results so the kernels run each time.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public abstract class KernelBenchmark {
+    @Benchmark
+    public double stats(FrameState state) {
+        Frames.invalidateCaches(state.frame);
+        return Frames.averageColumn(state.frame, "value");
+    }
+
+    @Benchmark
+    public Object histogram(FrameState state) {
+        return Frames.histogram(state.frame, "value", 10, 0, 1000);
+    }
+
+    @Benchmark
+    public Object compare(FrameState state) {
+        Frames.invalidateCaches(state.frame);
+        return Frames.subsetDataFrame(state.frame, "value > 500");
+    }
+
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Ddataframe.kernels=off"})
+    public static class Off extends KernelBenchmark {
+    }
+
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Ddataframe.kernels=scalar"})
+    public static class Scalar extends KernelBenchmark {
+    }
+
+    @Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules=jdk.incubator.vector", "-Ddataframe.kernels=vector"})
+    public static class Vector extends KernelBenchmark {
+    }
+}
@@ -0,0 +1,35 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Taking a read-only snapshot, whose columns share their arrays copy-on-write, against copying every column
+// with materialize, and a snapshot followed by an aggregation as a concurrent reader would run it.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SnapshotBenchmark {
+    @Benchmark
+    public Object snapshot(FrameState state) {
+        return Frames.snapshot(state.frame);
+    }
+
+    @Benchmark
+    public Object materialize(FrameState state) {
+        return Frames.materialize(state.frame);
+    }
+
+    @Benchmark
+    public double snapshotAverage(FrameState state) {
+        return Frames.averageColumn(Frames.snapshot(state.frame), "value");
+    }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// sortBy on an int column (radix sort, descending id reverses the file order), a double column and a
+// dictionary-encoded String column, and on a char column with a double column breaking its ties.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SortBenchmark {
+    @Benchmark
+    public Object intKey(FrameState state) {
+        return Frames.sortBy(state.frame, Collections.singletonList("id"), Collections.singletonList(false));
+    }
+
+    @Benchmark
+    public Object doubleKey(FrameState state) {
+        return Frames.sortBy(state.frame, Collections.singletonList("value"), Collections.singletonList(true));
+    }
+
+    @Benchmark
+    public Object stringKey(FrameState state) {
+        return Frames.sortBy(state.frame, Collections.singletonList("label"), Collections.singletonList(true));
+    }
+
+    @Benchmark
+    public Object compositeKey(FrameState state) {
+        return Frames.sortBy(state.frame, Arrays.asList("grade", "value"), Arrays.asList(true, false));
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// subsetDataFrame with a selective and a broad numeric condition, a string equality and a compound condition,
+// plus narrow conditions answered through sorted indexes.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SubsetBenchmark {
+    @Benchmark
+    public Object selectiveRange(FrameState state) {
+        return Frames.subsetDataFrame(state.frame, "value < 10");
+    }
+
+    @Benchmark
+    public Object broadRange(FrameState state) {
+        return Frames.subsetDataFrame(state.frame, "value > 500");
+    }
+
+    @Benchmark
+    public Object stringEquality(FrameState state) {
+        return Frames.subsetDataFrame(state.frame, "label == item42");
+    }
+
+    @Benchmark
+    public Object compound(FrameState state) {
+        return Frames.subsetDataFrame(state.frame, "value > 500 AND ( grade == A OR grade == B )");
+    }
+
+    @Benchmark
+    public Object indexedSelectiveRange(IndexedFrameState state) {
+        return Frames.subsetDataFrame(state.frame, "value < 10");
+    }
+
+    @Benchmark
+    public Object indexedPointLookup(IndexedFrameState state) {
+        return Frames.subsetDataFrame(state.frame, "id == 4242");
+    }
+
+    @Benchmark
+    public Object indexedStringEquality(IndexedFrameState state) {
+        return Frames.subsetDataFrame(state.frame, "label == item42");
+    }
+
+    @Benchmark
+    public Object indexedInList(IndexedFrameState state) {
+        return Frames.subsetDataFrame(state.frame, "label IN (item1, item2, item3)");
+    }
+}
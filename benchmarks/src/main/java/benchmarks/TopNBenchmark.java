@@ -0,0 +1,36 @@
+package benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The 100 rows with the largest "value" through topN, with and without a condition, against a full sortBy
+// of the same column.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class TopNBenchmark {
+    @Benchmark
+    public Object topN(FrameState state) {
+        return Frames.topN(state.frame, null, "value", 100, false);
+    }
+
+    @Benchmark
+    public Object filteredTopN(FrameState state) {
+        return Frames.topN(state.frame, "grade == A", "value", 100, false);
+    }
+
+    @Benchmark
+    public Object fullSort(FrameState state) {
+        return Frames.sortBy(state.frame, Collections.singletonList("value"), Collections.singletonList(false));
+    }
+}